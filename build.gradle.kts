@@ -5,6 +5,7 @@ plugins {
     id("org.springframework.boot") version "3.4.1"
     id("io.spring.dependency-management") version "1.1.7"
     id("com.google.protobuf") version "0.9.4"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.pension"
@@ -40,6 +41,12 @@ dependencies {
 
     // javax.annotation for gRPC generated code
     implementation("javax.annotation:javax.annotation-api:1.3.2")
+
+    // Latency histograms for /metrics
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 protobuf {
@@ -60,6 +67,47 @@ protobuf {
     }
 }
 
+// Incubator module for the vectorized projection kernel; the engine falls back to scalar code without it
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+// The vector kernel is the only code that uses the incubator module, so it is compiled on its own and only that
+// task sees --add-modules. Its classes ship with main; ProjectionKernel loads them reflectively.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+dependencies {
+    runtimeOnly(vector.output)
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.add("thrpt")
+    timeUnit.set("s")
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    jvmArgsAppend.addAll(vectorModule)
+}
+
 tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.addAll(vectorModule)
+    // javac has no lint category for "using incubating module(s)"; -Xlint:none is the only switch that silences
+    // it, so it is confined to this one-class task. Every other source set keeps javac's default lint.
+    options.compilerArgs.add("-Xlint:none")
+}
+
+tasks.test {
+    useJUnitPlatform()
+    jvmArgs(vectorModule)
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+    jvmArgs(vectorModule)
+}
@@ -0,0 +1,61 @@
+package com.pension.engine.benchmark;
+
+import com.pension.engine.model.request.Mutation;
+import com.pension.engine.model.state.Situation;
+import com.pension.engine.mutation.AddPolicyHandler;
+import com.pension.engine.mutation.CreateDossierHandler;
+import com.pension.engine.mutation.MutationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of a request with N add_policy mutations. With constant-time duplicate detection the
+ * time per batch grows linearly, so 10k policies should cost roughly 10x the 1k batch, not 100x.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AddPolicyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int policyCount;
+
+    private final CreateDossierHandler createDossier = new CreateDossierHandler();
+    private final AddPolicyHandler addPolicy = new AddPolicyHandler();
+
+    private Mutation createDossierMutation;
+    private List<Mutation> addPolicyMutations;
+    private Situation situation;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        createDossierMutation = Workloads.createDossier();
+        addPolicyMutations = Workloads.addPolicies(policyCount, 42L);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetDossier() {
+        situation = new Situation(null);
+        createDossier.execute(situation, createDossierMutation, Workloads.CONTEXT);
+    }
+
+    @Benchmark
+    public MutationResult addPolicies() {
+        MutationResult last = null;
+        List<Mutation> mutations = addPolicyMutations;
+        for (int i = 0; i < mutations.size(); i++) {
+            last = addPolicy.execute(situation, mutations.get(i), Workloads.CONTEXT);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,63 @@
+package com.pension.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pension.engine.config.JacksonConfig;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.model.request.CalculationRequest;
+import com.pension.engine.model.response.CalculationResponse;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * End-to-end throughput of {@link CalculationEngine#processSync} over parameterized workloads.
+ *
+ * <p>{@code patches=false} runs the request in patch-free mode, so the delta shows what building and
+ * serializing the forward/backward patches costs.
+ */
+@State(Scope.Benchmark)
+public class CalculationEngineBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int policyCount;
+
+    @Param({"0", "20"})
+    public int indexationCount;
+
+    @Param({"0", "120", "480"})
+    public int projectionMonths;
+
+    @Param({"true", "false"})
+    public boolean patches;
+
+    @Param({"false", "true"})
+    public boolean deferredIndexation;
+
+    /** Fork/join threads for large grids; {@code 1} keeps every calculation on the calling thread. */
+    @Param({"1"})
+    public int parallelThreads;
+
+    private CalculationEngine engine;
+    private CalculationRequest request;
+    private ObjectWriter responseWriter;
+
+    @Setup
+    public void setUp() {
+        engine = new CalculationEngine(new SchemeRegistryClient(""), deferredIndexation, parallelThreads, 100_000, 256, false);
+        request = Workloads.request(policyCount, indexationCount, projectionMonths);
+        responseWriter = new JacksonConfig().objectMapper().writerFor(CalculationResponse.class);
+    }
+
+    @Benchmark
+    public CalculationResponse processSync() {
+        return engine.processSync(request, patches);
+    }
+
+    @Benchmark
+    public byte[] processAndSerialize() throws Exception {
+        return responseWriter.writeValueAsBytes(engine.processSync(request, patches));
+    }
+}
@@ -0,0 +1,140 @@
+package com.pension.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.util.JsonFormat;
+import com.pension.engine.config.JacksonConfig;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.engine.EngineExecutor;
+import com.pension.engine.grpc.CalculationRequest;
+import com.pension.engine.grpc.CalculationResponse;
+import com.pension.engine.grpc.CalculationStreamRequest;
+import com.pension.engine.grpc.CalculationStreamResponse;
+import com.pension.engine.grpc.PensionCalculationServiceGrpc;
+import com.pension.engine.grpc.PensionCalculationServiceImpl;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculations per second over a real loopback gRPC connection: one unary call at a time, all unary
+ * calls in flight at once, and the same requests pipelined through a single {@code CalculateStream} call.
+ * Small dossiers keep the engine cheap so the per-call overhead shows.
+ */
+@State(Scope.Benchmark)
+public class GrpcStreamingBenchmark {
+
+    private static final int REQUESTS = 100;
+
+    @Param({"1", "10"})
+    public int policyCount;
+
+    private Server server;
+    private ManagedChannel channel;
+    private PensionCalculationServiceGrpc.PensionCalculationServiceBlockingStub blockingStub;
+    private PensionCalculationServiceGrpc.PensionCalculationServiceFutureStub futureStub;
+    private PensionCalculationServiceGrpc.PensionCalculationServiceStub asyncStub;
+    private CalculationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new JacksonConfig().objectMapper();
+        CalculationEngine engine = new CalculationEngine(new SchemeRegistryClient(""), false, 1, Long.MAX_VALUE, 256, false);
+        EngineExecutor executor = new EngineExecutor(0, 256);
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new PensionCalculationServiceImpl(engine, mapper, executor, 0))
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create())
+                .build();
+        blockingStub = PensionCalculationServiceGrpc.newBlockingStub(channel);
+        futureStub = PensionCalculationServiceGrpc.newFutureStub(channel);
+        asyncStub = PensionCalculationServiceGrpc.newStub(channel);
+
+        CalculationRequest.Builder builder = CalculationRequest.newBuilder();
+        JsonFormat.parser().merge(mapper.writeValueAsString(Workloads.request(policyCount, 0, 0)), builder);
+        request = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public CalculationResponse unarySequential() {
+        CalculationResponse last = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            last = blockingStub.calculate(request);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int unaryConcurrent() throws Exception {
+        List<ListenableFuture<CalculationResponse>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(futureStub.calculate(request));
+        }
+        int size = 0;
+        for (ListenableFuture<CalculationResponse> future : futures) {
+            size += future.get().getSerializedSize();
+        }
+        return size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int stream() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        int[] received = new int[1];
+        StreamObserver<CalculationStreamRequest> requests = asyncStub.calculateStream(
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(CalculationStreamResponse response) {
+                        received[0]++;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        done.countDown();
+                    }
+                });
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.onNext(CalculationStreamRequest.newBuilder()
+                    .setCorrelationId(Integer.toString(i))
+                    .setRequest(request)
+                    .build());
+        }
+        requests.onCompleted();
+        done.await();
+        if (received[0] != REQUESTS) {
+            throw new IllegalStateException("Expected " + REQUESTS + " responses, got " + received[0]);
+        }
+        return received[0];
+    }
+}
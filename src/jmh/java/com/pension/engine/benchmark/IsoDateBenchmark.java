@@ -0,0 +1,118 @@
+package com.pension.engine.benchmark;
+
+import com.pension.engine.model.IsoDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IsoDate} against {@link LocalDate} for the date work the engine does: parsing request dates to epoch days,
+ * formatting projection labels and stepping projection dates by months. Each operation covers 1024 dates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IsoDateBenchmark {
+
+    private static final int DATES = 1024;
+
+    private String[] texts;
+    private byte[][] utf8;
+    private long[] epochDays;
+    private final byte[] buffer = new byte[10];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42L);
+        long first = LocalDate.of(1950, 1, 1).toEpochDay();
+        texts = new String[DATES];
+        utf8 = new byte[DATES][];
+        epochDays = new long[DATES];
+        for (int i = 0; i < DATES; i++) {
+            epochDays[i] = first + random.nextInt(100 * 365);
+            texts[i] = LocalDate.ofEpochDay(epochDays[i]).toString();
+            utf8[i] = texts[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public long parseLocalDate() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += LocalDate.parse(text).toEpochDay();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long parseIsoDate() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += IsoDate.epochDayOrThrow(text);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long parseIsoDateBytes() {
+        long sum = 0;
+        for (byte[] bytes : utf8) {
+            sum += IsoDate.epochDay(bytes, 0, bytes.length);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int formatLocalDate() {
+        int length = 0;
+        for (long day : epochDays) {
+            length += LocalDate.ofEpochDay(day).toString().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int formatIsoDate() {
+        int length = 0;
+        for (long day : epochDays) {
+            length += IsoDate.format(day).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int formatIsoDateBytes() {
+        int length = 0;
+        for (long day : epochDays) {
+            length += IsoDate.format(day, buffer, 0);
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long plusMonthsLocalDate() {
+        long sum = 0;
+        for (long day : epochDays) {
+            sum += LocalDate.ofEpochDay(day).plusMonths(7).toEpochDay();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long plusMonthsIsoDate() {
+        long sum = 0;
+        for (long day : epochDays) {
+            sum += IsoDate.plusMonths(day, 7);
+        }
+        return sum;
+    }
+}
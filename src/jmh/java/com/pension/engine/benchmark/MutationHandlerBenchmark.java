@@ -0,0 +1,135 @@
+package com.pension.engine.benchmark;
+
+import com.pension.engine.model.request.Mutation;
+import com.pension.engine.model.state.Situation;
+import com.pension.engine.mutation.AddPolicyHandler;
+import com.pension.engine.mutation.ApplyIndexationHandler;
+import com.pension.engine.mutation.CalculateRetirementBenefitHandler;
+import com.pension.engine.mutation.CreateDossierHandler;
+import com.pension.engine.mutation.GridParallelism;
+import com.pension.engine.mutation.MutationResult;
+import com.pension.engine.mutation.ProjectFutureBenefitsHandler;
+import com.pension.engine.mutation.ProjectionDateCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Drives each {@code MutationHandler} directly against a prepared situation, without the engine loop.
+ * Handlers run without a scheme registry, i.e. with the default accrual rate.
+ */
+@State(Scope.Benchmark)
+public class MutationHandlerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int policyCount;
+
+    @Param({"12", "120", "480"})
+    public int projectionMonths;
+
+    /** Fork/join threads for large grids; {@code 1} keeps every handler on the calling thread. */
+    @Param({"1"})
+    public int parallelThreads;
+
+    /** Cached projection date ranges; {@code 0} builds the dates on every projection. */
+    @Param({"256"})
+    public int projectionDateCacheSize;
+
+    private final CreateDossierHandler createDossier = new CreateDossierHandler();
+    private final AddPolicyHandler addPolicy = new AddPolicyHandler();
+    private final ApplyIndexationHandler applyIndexation = new ApplyIndexationHandler();
+    private CalculateRetirementBenefitHandler calculateRetirement;
+    private ProjectFutureBenefitsHandler projectFutureBenefits;
+
+    private Mutation createDossierMutation;
+    private List<Mutation> addPolicyMutations;
+    private Mutation indexationAll;
+    private Mutation indexationScheme;
+    private Mutation indexationBefore;
+    private Mutation retirement;
+    private Mutation projection;
+
+    /** Dossier holding {@code policyCount} policies, shared by the read-mostly handlers. */
+    private Situation populated;
+
+    @Setup
+    public void setUp() {
+        // The benchmark thread is the only calculation executing
+        GridParallelism parallelism = new GridParallelism(parallelThreads, 100_000, () -> 1);
+        calculateRetirement = new CalculateRetirementBenefitHandler(parallelism);
+        projectFutureBenefits = new ProjectFutureBenefitsHandler(parallelism, new ProjectionDateCache(projectionDateCacheSize));
+
+        createDossierMutation = Workloads.createDossier();
+        addPolicyMutations = Workloads.addPolicies(policyCount, 42L);
+        // Factor 1.0 keeps salaries stable across invocations while still doing the full multiply/patch work
+        indexationAll = Workloads.applyIndexation(1, 0.0);
+        indexationScheme = Workloads.applyIndexationForScheme(1, 0.0, Workloads.SCHEMES[0]);
+        indexationBefore = Workloads.applyIndexationBefore(1, 0.0, "2000-01-01");
+        retirement = Workloads.calculateRetirementBenefit(1, "2025-06-15");
+        projection = Workloads.projectFutureBenefits(1, projectionMonths);
+
+        populated = new Situation(null);
+        createDossier.execute(populated, createDossierMutation, Workloads.CONTEXT);
+        for (Mutation mutation : addPolicyMutations) {
+            addPolicy.execute(populated, mutation, Workloads.CONTEXT);
+        }
+    }
+
+    /** Fresh dossier for the add_policy benchmark, which appends and so cannot reuse {@link #populated}. */
+    @State(Scope.Thread)
+    public static class EmptyDossier {
+        Situation situation;
+
+        @Setup(Level.Invocation)
+        public void setUp(MutationHandlerBenchmark bench) {
+            situation = new Situation(null);
+            bench.createDossier.execute(situation, bench.createDossierMutation, Workloads.CONTEXT);
+        }
+    }
+
+    @Benchmark
+    public MutationResult createDossier() {
+        return createDossier.execute(new Situation(null), createDossierMutation, Workloads.CONTEXT);
+    }
+
+    /** Appends all {@code policyCount} policies to an empty dossier; one operation is the whole batch. */
+    @Benchmark
+    public MutationResult addPolicies(EmptyDossier state) {
+        MutationResult last = null;
+        List<Mutation> mutations = addPolicyMutations;
+        for (int i = 0; i < mutations.size(); i++) {
+            last = addPolicy.execute(state.situation, mutations.get(i), Workloads.CONTEXT);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public MutationResult applyIndexationAll() {
+        return applyIndexation.execute(populated, indexationAll, Workloads.CONTEXT);
+    }
+
+    @Benchmark
+    public MutationResult applyIndexationSchemeFilter() {
+        return applyIndexation.execute(populated, indexationScheme, Workloads.CONTEXT);
+    }
+
+    @Benchmark
+    public MutationResult applyIndexationDateFilter() {
+        return applyIndexation.execute(populated, indexationBefore, Workloads.CONTEXT);
+    }
+
+    @Benchmark
+    public MutationResult calculateRetirementBenefit() {
+        return calculateRetirement.execute(populated, retirement, Workloads.CONTEXT);
+    }
+
+    @Benchmark
+    public MutationResult projectFutureBenefits() {
+        return projectFutureBenefits.execute(populated, projection, Workloads.CONTEXT);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pension.engine.benchmark;
+
+import com.pension.engine.mutation.ProjectionKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The project_future_benefits grid alone, scalar against vector kernel, over dates × policies grid sizes.
+ * Setup fails if the two kernels disagree in a single bit, or if the JVM lacks {@code jdk.incubator.vector}.
+ * {@link #sweep} takes the per-date averages from the opt-in sweep instead (ENGINE_PROJECTION_SWEEP_AVERAGES).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionKernelBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int policyCount;
+
+    @Param({"12", "120", "480"})
+    public int projectionMonths;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private ProjectionKernel projectionKernel;
+    private long[] projectionDays;
+    private long[] empStartDays;
+    private double[] effectiveSalaries;
+    private double[] accrualRates;
+    private double[] pensions;
+    private double[] weightedAvg;
+    private boolean[] hasService;
+
+    @Setup
+    public void setUp() {
+        // Same spread as Workloads.addPolicies, so some policies start after the first projection dates
+        SplittableRandom random = new SplittableRandom(42L);
+        long firstEmploymentDay = LocalDate.of(1985, 1, 1).toEpochDay();
+        empStartDays = new long[policyCount];
+        effectiveSalaries = new double[policyCount];
+        accrualRates = new double[policyCount];
+        for (int i = 0; i < policyCount; i++) {
+            empStartDays[i] = firstEmploymentDay + random.nextInt(45 * 365);
+            effectiveSalaries[i] = (30000 + random.nextInt(60000)) * (random.nextBoolean() ? 1.0 : 0.8);
+            accrualRates[i] = random.nextBoolean() ? 0.02 : 0.0175;
+        }
+
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        projectionDays = new long[projectionMonths + 1];
+        for (int d = 0; d <= projectionMonths; d++) {
+            projectionDays[d] = start.plusMonths(d).toEpochDay();
+        }
+        pensions = new double[policyCount * projectionDays.length];
+        weightedAvg = new double[projectionDays.length];
+        hasService = new boolean[projectionDays.length];
+
+        ProjectionKernel vector = ProjectionKernel.vector();
+        if (vector == null) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+        projectionKernel = "vector".equals(kernel) ? vector : ProjectionKernel.scalar();
+
+        double[] expected = new double[pensions.length];
+        ProjectionKernel.scalar().compute(projectionDays, empStartDays, effectiveSalaries, accrualRates, expected);
+        vector.compute(projectionDays, empStartDays, effectiveSalaries, accrualRates, pensions);
+        for (int k = 0; k < expected.length; k++) {
+            if (Double.doubleToRawLongBits(expected[k]) != Double.doubleToRawLongBits(pensions[k])) {
+                throw new IllegalStateException("Kernels differ at " + k + ": " + expected[k] + " vs " + pensions[k]);
+            }
+        }
+        Arrays.fill(pensions, 0);
+    }
+
+    @Benchmark
+    public double[] compute() {
+        projectionKernel.compute(projectionDays, empStartDays, effectiveSalaries, accrualRates, pensions);
+        return pensions;
+    }
+
+    @Benchmark
+    public double[] sweep() {
+        ProjectionKernel.sweepWeightedAverages(projectionDays, empStartDays, effectiveSalaries, weightedAvg,
+                hasService);
+        projectionKernel.pensions(projectionDays, empStartDays, accrualRates, weightedAvg, hasService, pensions,
+                0, policyCount);
+        return pensions;
+    }
+}
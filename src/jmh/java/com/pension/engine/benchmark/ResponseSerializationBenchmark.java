@@ -0,0 +1,67 @@
+package com.pension.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pension.engine.config.JacksonConfig;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.model.response.CalculationResponse;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response serialization into a fresh {@code byte[]} (then copied into a Netty buffer, as WebFlux does
+ * for {@code bodyValue(byte[])}) versus writing straight into a pooled {@code ByteBuf}.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"100", "500"})
+    public int policyCount;
+
+    @Param({"120", "480"})
+    public int projectionMonths;
+
+    private final PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    private CalculationResponse response;
+    private ObjectWriter responseWriter;
+
+    @Setup
+    public void setUp() {
+        CalculationEngine engine = new CalculationEngine(new SchemeRegistryClient(""), false, 1, Long.MAX_VALUE, 256, false);
+        response = engine.processSync(Workloads.request(policyCount, 0, projectionMonths));
+        responseWriter = new JacksonConfig().objectMapper().writerFor(CalculationResponse.class);
+    }
+
+    @Benchmark
+    public int byteArrayThenCopy() throws IOException {
+        byte[] bytes = responseWriter.writeValueAsBytes(response);
+        ByteBuf buffer = allocator.buffer(bytes.length);
+        try {
+            return buffer.writeBytes(bytes).readableBytes();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Benchmark
+    public int pooledByteBuf() throws IOException {
+        ByteBuf buffer = allocator.buffer(16 * 1024);
+        try {
+            responseWriter.writeValue((OutputStream) new ByteBufOutputStream(buffer), response);
+            return buffer.readableBytes();
+        } finally {
+            buffer.release();
+        }
+    }
+}
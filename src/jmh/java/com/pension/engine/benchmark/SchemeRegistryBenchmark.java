@@ -0,0 +1,107 @@
+package com.pension.engine.benchmark;
+
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.model.request.CalculationRequest;
+import com.pension.engine.model.response.CalculationResponse;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import com.pension.engine.scheme.StubSchemeRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of {@link CalculationEngine#processSync} with the scheme registry at {@link StubSchemeRegistry},
+ * over 1 to 50 unique schemes in a 50-policy request.
+ *
+ * <p>{@code cache=cold} gives every calculation a new client, like the first request after a restart: each scheme
+ * should cost exactly one call however many policies and handlers use it. {@code cache=warm} reuses one client with
+ * the default 300 s TTL, whose steady state should make no calls at all. The {@code registryCalls} and
+ * {@code calculations} counters are totals over the measurement, so their ratio is the calls per calculation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemeRegistryBenchmark {
+
+    private static final int POLICY_COUNT = 50;
+
+    @Param({"1", "5", "20", "50"})
+    public int uniqueSchemes;
+
+    /** Stub registry response time per call. */
+    @Param({"0", "20"})
+    public long latencyMillis;
+
+    @Param({"cold", "warm"})
+    public String cache;
+
+    /** Fraction of registry calls answered with a 500. */
+    @Param({"0"})
+    public double errorRate;
+
+    private StubSchemeRegistry registry;
+    private CalculationRequest request;
+    private SchemeRegistryClient client;
+    private CalculationEngine engine;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RegistryCounters {
+        public long calculations;
+        public long registryCalls;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        registry = StubSchemeRegistry.start().latencyMillis(latencyMillis).errorRate(errorRate).accrualRate(0.025);
+        request = Workloads.request(POLICY_COUNT, Workloads.schemeIds(uniqueSchemes));
+        if (cache.equals("warm")) {
+            newEngine();
+        }
+    }
+
+    // Setup and teardown run outside the measured time, so a cold client costs only its registry calls
+    @Setup(Level.Invocation)
+    public void coldClient() {
+        if (cache.equals("cold")) {
+            newEngine();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeColdClient() {
+        if (cache.equals("cold")) {
+            client.shutdown();
+        }
+    }
+
+    private void newEngine() {
+        client = new SchemeRegistryClient(registry.url(), 1024, 300, 60, 5, 2000, 1000, 5, 10, "", 30);
+        engine = new CalculationEngine(client, false, 1, Long.MAX_VALUE, 256, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+        registry.close();
+    }
+
+    @Benchmark
+    public CalculationResponse processSync(RegistryCounters counters) {
+        long callsBefore = registry.calls();
+        CalculationResponse response = engine.processSync(request);
+        counters.calculations++;
+        counters.registryCalls += registry.calls() - callsBefore;
+        return response;
+    }
+}
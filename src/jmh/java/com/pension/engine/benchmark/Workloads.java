@@ -0,0 +1,201 @@
+package com.pension.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.pension.engine.model.request.CalculationInstructions;
+import com.pension.engine.model.request.CalculationRequest;
+import com.pension.engine.model.request.Mutation;
+import com.pension.engine.mutation.MutationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic request and mutation builders shared by the benchmarks.
+ * Every workload is seeded, so two runs of the same parameters execute identical mutations.
+ */
+public final class Workloads {
+
+    private static final JsonNodeFactory NF = JsonNodeFactory.instance;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Handler context without a scheme registry, producing patches like a default request. */
+    public static final MutationContext CONTEXT = new MutationContext(null, true);
+
+    public static final String DOSSIER_ID = "d0000000-0000-0000-0000-000000000001";
+    public static final String[] SCHEMES = {"SCHEME-A", "SCHEME-B", "SCHEME-C", "SCHEME-D", "SCHEME-E"};
+
+    private static final long FIRST_EMPLOYMENT_DAY = LocalDate.of(1985, 1, 1).toEpochDay();
+    private static final int EMPLOYMENT_SPREAD_DAYS = 30 * 365;
+
+    private Workloads() {}
+
+    public static Mutation createDossier() {
+        ObjectNode props = NF.objectNode();
+        props.put("dossier_id", DOSSIER_ID);
+        props.put("person_id", "p0000000-0000-0000-0000-000000000001");
+        props.put("name", "Bench Participant");
+        props.put("birth_date", "1960-06-15");
+        return mutation(0, "create_dossier", "DOSSIER_CREATION", props);
+    }
+
+    /** {@code count} add_policy mutations over all schemes, with spread-out employment start dates. */
+    public static List<Mutation> addPolicies(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Mutation> mutations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mutations.add(addPolicy(1 + i, SCHEMES[random.nextInt(SCHEMES.length)], random));
+        }
+        return mutations;
+    }
+
+    /** {@code count} add_policy mutations cycling through {@code schemeIds}, so every scheme is used once count allows. */
+    public static List<Mutation> addPolicies(int count, String[] schemeIds, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Mutation> mutations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mutations.add(addPolicy(1 + i, schemeIds[i % schemeIds.length], random));
+        }
+        return mutations;
+    }
+
+    private static Mutation addPolicy(int index, String schemeId, SplittableRandom random) {
+        ObjectNode props = NF.objectNode();
+        props.put("scheme_id", schemeId);
+        props.put("employment_start_date",
+                LocalDate.ofEpochDay(FIRST_EMPLOYMENT_DAY + random.nextInt(EMPLOYMENT_SPREAD_DAYS)).toString());
+        props.put("salary", 30000 + random.nextInt(60000));
+        props.put("part_time_factor", random.nextBoolean() ? 1.0 : 0.8);
+        return mutation(index, "add_policy", "DOSSIER", props);
+    }
+
+    /** {@code count} distinct scheme ids: SCHEME-001, SCHEME-002, ... */
+    public static String[] schemeIds(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = String.format("SCHEME-%03d", i + 1);
+        }
+        return ids;
+    }
+
+    /** apply_indexation without filters. */
+    public static Mutation applyIndexation(int index, double percentage) {
+        ObjectNode props = NF.objectNode();
+        props.put("percentage", percentage);
+        return mutation(index, "apply_indexation", "DOSSIER", props);
+    }
+
+    /** apply_indexation restricted to one scheme. */
+    public static Mutation applyIndexationForScheme(int index, double percentage, String schemeId) {
+        ObjectNode props = NF.objectNode();
+        props.put("percentage", percentage);
+        props.put("scheme_id", schemeId);
+        return mutation(index, "apply_indexation", "DOSSIER", props);
+    }
+
+    /** apply_indexation restricted to policies that started before {@code effectiveBefore}. */
+    public static Mutation applyIndexationBefore(int index, double percentage, String effectiveBefore) {
+        ObjectNode props = NF.objectNode();
+        props.put("percentage", percentage);
+        props.put("effective_before", effectiveBefore);
+        return mutation(index, "apply_indexation", "DOSSIER", props);
+    }
+
+    /** Mixed indexations cycling through unfiltered, scheme-filtered and date-filtered variants. */
+    public static List<Mutation> indexations(int count, int firstIndex, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Mutation> mutations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = firstIndex + i;
+            switch (i % 3) {
+                case 0 -> mutations.add(applyIndexation(index, 0.02));
+                case 1 -> mutations.add(applyIndexationForScheme(index, 0.015,
+                        SCHEMES[random.nextInt(SCHEMES.length)]));
+                default -> mutations.add(applyIndexationBefore(index, 0.01,
+                        LocalDate.ofEpochDay(FIRST_EMPLOYMENT_DAY + random.nextInt(EMPLOYMENT_SPREAD_DAYS)).toString()));
+            }
+        }
+        return mutations;
+    }
+
+    public static Mutation calculateRetirementBenefit(int index, String retirementDate) {
+        ObjectNode props = NF.objectNode();
+        props.put("retirement_date", retirementDate);
+        return mutation(index, "calculate_retirement_benefit", "DOSSIER", props);
+    }
+
+    /** Monthly projection covering {@code months} months from 2025-01-01. */
+    public static Mutation projectFutureBenefits(int index, int months) {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        ObjectNode props = NF.objectNode();
+        props.put("projection_start_date", start.toString());
+        props.put("projection_end_date", start.plusMonths(months).toString());
+        props.put("projection_interval_months", 1);
+        return mutation(index, "project_future_benefits", "DOSSIER", props);
+    }
+
+    /**
+     * A full request: create_dossier, {@code policyCount} add_policy, {@code indexationCount} apply_indexation,
+     * calculate_retirement_benefit and, when {@code projectionMonths > 0}, a monthly project_future_benefits.
+     */
+    public static CalculationRequest request(int policyCount, int indexationCount, int projectionMonths) {
+        List<Mutation> mutations = new ArrayList<>(policyCount + indexationCount + 3);
+        mutations.add(createDossier());
+        mutations.addAll(addPolicies(policyCount, 42L));
+        mutations.addAll(indexations(indexationCount, mutations.size(), 7L));
+        mutations.add(calculateRetirementBenefit(mutations.size(), "2025-06-15"));
+        if (projectionMonths > 0) {
+            mutations.add(projectFutureBenefits(mutations.size(), projectionMonths));
+        }
+        return request(mutations);
+    }
+
+    /**
+     * create_dossier, {@code policyCount} add_policy spread over {@code schemeIds}, then calculate_retirement_benefit
+     * and a 12-month project_future_benefits: both look up every scheme's accrual rate.
+     */
+    public static CalculationRequest request(int policyCount, String[] schemeIds) {
+        List<Mutation> mutations = new ArrayList<>(policyCount + 3);
+        mutations.add(createDossier());
+        mutations.addAll(addPolicies(policyCount, schemeIds, 42L));
+        mutations.add(calculateRetirementBenefit(mutations.size(), "2025-06-15"));
+        mutations.add(projectFutureBenefits(mutations.size(), 12));
+        return request(mutations);
+    }
+
+    private static CalculationRequest request(List<Mutation> mutations) {
+        CalculationInstructions instructions = new CalculationInstructions();
+        instructions.setMutations(mutations);
+        CalculationRequest request = new CalculationRequest();
+        request.setTenantId("bench");
+        request.setCalculationInstructions(instructions);
+        return request;
+    }
+
+    private static Mutation mutation(int index, String definition, String type, ObjectNode props) {
+        Mutation mutation = new Mutation();
+        mutation.setMutationId(String.format("00000000-0000-0000-0000-%012d", index));
+        mutation.setMutationDefinitionName(definition);
+        mutation.setMutationType(type);
+        mutation.setActualAt("2024-01-01");
+        if (!"create_dossier".equals(definition)) {
+            mutation.setDossierId(DOSSIER_ID);
+        }
+        // Same shape the request deserializer produces: raw property tokens plus the bound record
+        TokenBuffer tokens = new TokenBuffer(MAPPER, false);
+        try {
+            MAPPER.writeTree(tokens, props);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mutation.setMutationProperties(tokens);
+        mutation.getProperties();
+        return mutation;
+    }
+}
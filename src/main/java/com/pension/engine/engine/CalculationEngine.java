@@ -1,168 +1,104 @@
 package com.pension.engine.engine;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.pension.engine.metrics.MetricsSource;
+import com.pension.engine.metrics.MetricsWriter;
 import com.pension.engine.model.request.CalculationRequest;
 import com.pension.engine.model.request.Mutation;
-import com.pension.engine.model.response.*;
-import com.pension.engine.model.state.Situation;
-import com.pension.engine.mutation.MutationHandler;
+import com.pension.engine.model.response.CalculationResponse;
+import com.pension.engine.mutation.GridParallelism;
+import com.pension.engine.mutation.MutationContext;
 import com.pension.engine.mutation.MutationRegistry;
-import com.pension.engine.mutation.MutationResult;
-import com.pension.engine.patch.PatchBuilder;
+import com.pension.engine.mutation.ProjectionDateCache;
 import com.pension.engine.scheme.SchemeRegistryClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
-public class CalculationEngine {
+public class CalculationEngine implements MetricsSource {
 
-    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+    static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
             .withZone(ZoneOffset.UTC);
 
     private static final char[] HEX = "0123456789abcdef".toCharArray();
 
     private final MutationRegistry registry;
-    private final SchemeRegistryClient schemeClient;
-
-    public CalculationEngine(SchemeRegistryClient schemeClient) {
-        this.registry = new MutationRegistry();
-        this.schemeClient = schemeClient;
+    private final ProjectionDateCache projectionDates;
+    private final MutationContext context;
+    private final MutationContext patchFreeContext;
+    private final EngineTimings timings = new EngineTimings();
+    // Calculations inside a mutation handler right now, on any thread; large grids split only onto idle cores
+    private final LongAdder executing = new LongAdder();
+
+    public CalculationEngine(SchemeRegistryClient schemeClient,
+                             @Value("${engine.indexation.deferred:false}") boolean deferredIndexation,
+                             @Value("${engine.parallel.threads:0}") int parallelThreads,
+                             @Value("${engine.parallel.threshold:100000}") long parallelThreshold,
+                             @Value("${engine.projection.date-cache-size:256}") int projectionDateCacheSize,
+                             @Value("${engine.projection.sweep-averages:false}") boolean sweepProjectionAverages) {
+        this.projectionDates = new ProjectionDateCache(projectionDateCacheSize);
+        this.registry = new MutationRegistry(deferredIndexation,
+                new GridParallelism(parallelThreads, parallelThreshold, executing::sum), projectionDates,
+                sweepProjectionAverages);
+        this.context = new MutationContext(schemeClient, true);
+        this.patchFreeContext = new MutationContext(schemeClient, false);
     }
 
     public CalculationResponse processSync(CalculationRequest request) {
-        long startNanos = System.nanoTime();
-        Instant startedAt = Instant.now();
+        return processSync(request, true);
+    }
 
+    /**
+     * @param patches whether to build forward/backward patches; without them the patch fields are
+     *                left out of every processed mutation
+     */
+    public CalculationResponse processSync(CalculationRequest request, boolean patches) {
+        CalculationSession session = newSession(request.getTenantId(), patches);
         List<Mutation> mutations = request.getCalculationInstructions().getMutations();
-        int mutationCount = mutations.size();
-
-        Situation situation = new Situation(null);
-        List<CalculationMessage> allMessages = new ArrayList<>(4);
-        List<ProcessedMutation> processedMutations = new ArrayList<>(mutationCount);
-
-        String lastSuccessfulMutationId = mutations.get(0).getMutationId();
-        int lastSuccessfulIndex = 0;
-        String lastSuccessfulActualAt = mutations.get(0).getActualAt();
-        boolean anySucceeded = false;
-
-        boolean failed = false;
-
-        for (int i = 0; i < mutationCount; i++) {
-            Mutation mutation = mutations.get(i);
-            MutationHandler handler = registry.getHandler(mutation.getMutationDefinitionName());
-
-            ProcessedMutation processed = new ProcessedMutation();
-            processed.setMutation(mutation);
-
-            if (handler == null) {
-                // Unknown mutation - treat as critical
-                CalculationMessage msg = new CalculationMessage("CRITICAL", "UNKNOWN_MUTATION",
-                        "Unknown mutation: " + mutation.getMutationDefinitionName());
-                msg.setId(allMessages.size());
-                allMessages.add(msg);
-                processed.setCalculationMessageIndexes(List.of(msg.getId()));
-                processedMutations.add(processed);
-                failed = true;
-                break;
-            }
-
-            MutationResult result = handler.execute(situation, mutation, schemeClient);
-
-            if (result.isCritical()) {
-                // CRITICAL: state is NOT modified - use empty patches
-                List<CalculationMessage> messages = result.getMessages();
-                List<Integer> messageIndexes = new ArrayList<>(messages.size());
-                for (CalculationMessage msg : messages) {
-                    msg.setId(allMessages.size());
-                    messageIndexes.add(msg.getId());
-                    allMessages.add(msg);
-                }
-                processed.setCalculationMessageIndexes(messageIndexes);
-
-                ArrayNode emptyPatch = PatchBuilder.emptyPatch();
-                processed.setForwardPatch(emptyPatch);
-                processed.setBackwardPatch(emptyPatch);
-
-                processedMutations.add(processed);
-                failed = true;
+        session.prefetchSchemes(mutations);
+        for (int i = 0, n = mutations.size(); i < n; i++) {
+            if (!session.accept(mutations.get(i))) {
                 break;
             }
-
-            // Success or warnings
-            List<CalculationMessage> messages = result.getMessages();
-            if (!messages.isEmpty()) {
-                List<Integer> messageIndexes = new ArrayList<>(messages.size());
-                for (CalculationMessage msg : messages) {
-                    msg.setId(allMessages.size());
-                    messageIndexes.add(msg.getId());
-                    allMessages.add(msg);
-                }
-                processed.setCalculationMessageIndexes(messageIndexes);
-            } else {
-                processed.setCalculationMessageIndexes(List.of());
-            }
-
-            // Use handler-generated patches directly
-            if (result.hasPatches()) {
-                processed.setForwardPatch(result.getForwardPatch());
-                processed.setBackwardPatch(result.getBackwardPatch());
-            }
-
-            processedMutations.add(processed);
-
-            lastSuccessfulMutationId = mutation.getMutationId();
-            lastSuccessfulIndex = i;
-            lastSuccessfulActualAt = mutation.getActualAt();
-            anySucceeded = true;
         }
+        return session.finish();
+    }
 
-        // Build end_situation
-        SituationSnapshot endSituation = new SituationSnapshot();
-        endSituation.setMutationId(lastSuccessfulMutationId);
-        endSituation.setMutationIndex(lastSuccessfulIndex);
-        endSituation.setActualAt(lastSuccessfulActualAt);
-        endSituation.setSituation(situation);
-
-        // Build initial_situation
-        InitialSituation initialSituation = new InitialSituation(
-                mutations.get(0).getActualAt(),
-                new Situation(null)
-        );
-
-        // Build result
-        CalculationResult calcResult = new CalculationResult();
-        calcResult.setMessages(allMessages);
-        calcResult.setMutations(processedMutations);
-        calcResult.setEndSituation(endSituation);
-        calcResult.setInitialSituation(initialSituation);
-
-        // Build metadata
-        long durationNanos = System.nanoTime() - startNanos;
-        long durationMs = durationNanos / 1_000_000;
-        Instant completedAt = startedAt.plusNanos(durationNanos);
+    /** Starts an incremental calculation; the clock for calculation_duration_ms starts here. */
+    public CalculationSession newSession(String tenantId) {
+        return newSession(tenantId, true);
+    }
 
-        CalculationMetadata metadata = new CalculationMetadata();
-        metadata.setCalculationId(fastUUID());
-        metadata.setTenantId(request.getTenantId());
-        metadata.setCalculationStartedAt(ISO_FORMATTER.format(startedAt));
-        metadata.setCalculationCompletedAt(ISO_FORMATTER.format(completedAt));
-        metadata.setCalculationDurationMs(durationMs);
-        metadata.setCalculationOutcome(failed ? "FAILURE" : "SUCCESS");
+    public CalculationSession newSession(String tenantId, boolean patches) {
+        return new CalculationSession(registry, patches ? context : patchFreeContext, tenantId, timings, executing);
+    }
 
-        CalculationResponse response = new CalculationResponse();
-        response.setCalculationMetadata(metadata);
-        response.setCalculationResult(calcResult);
+    /** Latency histograms for mutations and request phases; callers record the phases outside the engine. */
+    public EngineTimings timings() {
+        return timings;
+    }
 
-        return response;
+    @Override
+    public void writeMetrics(MetricsWriter out) {
+        out.gauge("engine_projection_date_cache_entries", "Projection date ranges currently cached",
+                        projectionDates.size())
+                .gauge("engine_projection_date_cache_capacity", "Maximum cached projection date ranges",
+                        projectionDates.capacity())
+                .counter("engine_projection_date_cache_hits_total", "Projections that reused cached dates",
+                        projectionDates.hits())
+                .counter("engine_projection_date_cache_misses_total", "Projections that had to build their dates",
+                        projectionDates.misses())
+                .counter("engine_projection_date_cache_evictions_total", "Cached date ranges evicted to make room",
+                        projectionDates.evictions());
+        timings.writeMetrics(out);
     }
 
-    private static String fastUUID() {
+    static String fastUUID() {
         ThreadLocalRandom r = ThreadLocalRandom.current();
         long msb = r.nextLong();
         long lsb = r.nextLong();
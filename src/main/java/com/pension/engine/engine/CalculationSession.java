@@ -0,0 +1,240 @@
+package com.pension.engine.engine;
+
+import com.pension.engine.model.request.AddPolicyProperties;
+import com.pension.engine.model.request.Mutation;
+import com.pension.engine.model.request.MutationDefinition;
+import com.pension.engine.model.response.*;
+import com.pension.engine.model.state.Situation;
+import com.pension.engine.mutation.MutationContext;
+import com.pension.engine.mutation.MutationHandler;
+import com.pension.engine.mutation.MutationRegistry;
+import com.pension.engine.mutation.MutationResult;
+import com.pension.engine.patch.Patch;
+import com.pension.engine.patch.PatchBuilder;
+import com.pension.engine.scheme.SchemeRegistryClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One calculation fed a mutation at a time, so callers can execute mutations while the rest of the
+ * request is still being read. Obtain one from {@link CalculationEngine#newSession}; not thread-safe.
+ */
+public final class CalculationSession {
+
+    private final MutationRegistry registry;
+    private final MutationContext context;
+    private final String tenantId;
+    // Null unless a scheme registry is configured
+    private final SchemeRegistryClient schemeClient;
+    private final EngineTimings timings;
+    private final LongAdder executing;
+
+    private final long startNanos = System.nanoTime();
+    private final Instant startedAt = Instant.now();
+
+    private final Situation situation = new Situation(null);
+    private final List<CalculationMessage> allMessages = new ArrayList<>(4);
+    private final List<ProcessedMutation> processedMutations = new ArrayList<>();
+
+    private String firstActualAt;
+    private String lastSuccessfulMutationId;
+    private int lastSuccessfulIndex;
+    private String lastSuccessfulActualAt;
+    private int index;
+    private boolean failed;
+    private boolean prefetched;
+    // Time spent in handlers and building the response; the rest of a request's time is parsing
+    private long executeNanos;
+
+    CalculationSession(MutationRegistry registry, MutationContext context, String tenantId, EngineTimings timings,
+                       LongAdder executing) {
+        this.registry = registry;
+        this.context = context;
+        this.tenantId = tenantId;
+        this.timings = timings;
+        this.executing = executing;
+        SchemeRegistryClient client = context.getSchemeClient();
+        this.schemeClient = client != null && client.isEnabled() ? client : null;
+    }
+
+    /**
+     * Starts the registry fetches for the schemes of every {@code add_policy} in the request before the first
+     * mutation runs, so they overlap with the mutations leading up to the benefit calculations. Without this,
+     * each scheme is fetched as its {@code add_policy} is accepted.
+     */
+    void prefetchSchemes(List<Mutation> mutations) {
+        if (schemeClient == null) {
+            return;
+        }
+        for (int i = 0, n = mutations.size(); i < n; i++) {
+            prefetchScheme(mutations.get(i));
+        }
+        prefetched = true;
+    }
+
+    private void prefetchScheme(Mutation mutation) {
+        if (mutation.getDefinition() != MutationDefinition.ADD_POLICY) {
+            return;
+        }
+        try {
+            if (mutation.getProperties() instanceof AddPolicyProperties props) {
+                schemeClient.prefetch(props.schemeId());
+            }
+        } catch (RuntimeException e) {
+            // Unreadable properties fail when the mutation itself runs, if it is reached
+        }
+    }
+
+    /**
+     * Executes the next mutation. Returns {@code false} once the calculation has failed; any further
+     * mutations are ignored and need not be read.
+     */
+    public boolean accept(Mutation mutation) {
+        if (failed) {
+            return false;
+        }
+        if (index == 0) {
+            firstActualAt = mutation.getActualAt();
+            lastSuccessfulMutationId = mutation.getMutationId();
+            lastSuccessfulActualAt = firstActualAt;
+        }
+        int i = index++;
+        if (schemeClient != null && !prefetched) {
+            prefetchScheme(mutation);
+        }
+
+        MutationHandler handler = registry.getHandler(mutation.getDefinition());
+
+        ProcessedMutation processed = new ProcessedMutation();
+        processed.setMutation(mutation);
+
+        if (handler == null) {
+            // Unknown mutation - treat as critical
+            CalculationMessage msg = new CalculationMessage("CRITICAL", "UNKNOWN_MUTATION",
+                    "Unknown mutation: " + mutation.getMutationDefinitionName());
+            msg.setId(allMessages.size());
+            allMessages.add(msg);
+            processed.setCalculationMessageIndexes(List.of(msg.getId()));
+            processedMutations.add(processed);
+            failed = true;
+            timings.recordMutation(mutation.getDefinition(), EngineTimings.Outcome.CRITICAL, 0);
+            return false;
+        }
+
+        long executeStart = System.nanoTime();
+        MutationResult result;
+        executing.increment();
+        try {
+            result = handler.execute(situation, mutation, context);
+        } catch (RuntimeException | Error e) {
+            timings.recordMutation(mutation.getDefinition(), EngineTimings.Outcome.ERROR,
+                    System.nanoTime() - executeStart);
+            throw e;
+        } finally {
+            executing.decrement();
+        }
+        long elapsed = System.nanoTime() - executeStart;
+        executeNanos += elapsed;
+        timings.recordMutation(mutation.getDefinition(), result.isCritical() ? EngineTimings.Outcome.CRITICAL
+                : result.getMessages().isEmpty() ? EngineTimings.Outcome.SUCCESS : EngineTimings.Outcome.WARNING, elapsed);
+
+        if (result.isCritical()) {
+            // CRITICAL: state is NOT modified - use empty patches
+            processed.setCalculationMessageIndexes(collectMessages(result.getMessages()));
+
+            if (context.isPatches()) {
+                Patch emptyPatch = PatchBuilder.emptyPatch();
+                processed.setForwardPatch(emptyPatch);
+                processed.setBackwardPatch(emptyPatch);
+            }
+
+            processedMutations.add(processed);
+            failed = true;
+            return false;
+        }
+
+        // Success or warnings
+        List<CalculationMessage> messages = result.getMessages();
+        processed.setCalculationMessageIndexes(messages.isEmpty() ? List.of() : collectMessages(messages));
+
+        // Use handler-generated patches directly
+        if (result.hasPatches()) {
+            processed.setForwardPatch(result.getForwardPatch());
+            processed.setBackwardPatch(result.getBackwardPatch());
+        }
+
+        processedMutations.add(processed);
+
+        lastSuccessfulMutationId = mutation.getMutationId();
+        lastSuccessfulIndex = i;
+        lastSuccessfulActualAt = mutation.getActualAt();
+        return true;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /** Nanoseconds spent executing mutations and finishing so far. */
+    public long executeNanos() {
+        return executeNanos;
+    }
+
+    /** Builds the response. At least one mutation must have been accepted. */
+    public CalculationResponse finish() {
+        long finishStart = System.nanoTime();
+        // Build end_situation (with any deferred indexations folded into the salaries)
+        if (situation.getDossier() != null) {
+            situation.getDossier().settleSalaries();
+        }
+        SituationSnapshot endSituation = new SituationSnapshot();
+        endSituation.setMutationId(lastSuccessfulMutationId);
+        endSituation.setMutationIndex(lastSuccessfulIndex);
+        endSituation.setActualAt(lastSuccessfulActualAt);
+        endSituation.setSituation(situation);
+
+        // Build initial_situation
+        InitialSituation initialSituation = new InitialSituation(firstActualAt, new Situation(null));
+
+        // Build result
+        CalculationResult calcResult = new CalculationResult();
+        calcResult.setMessages(allMessages);
+        calcResult.setMutations(processedMutations);
+        calcResult.setEndSituation(endSituation);
+        calcResult.setInitialSituation(initialSituation);
+
+        // Build metadata
+        long durationNanos = System.nanoTime() - startNanos;
+        long durationMs = durationNanos / 1_000_000;
+        Instant completedAt = startedAt.plusNanos(durationNanos);
+
+        CalculationMetadata metadata = new CalculationMetadata();
+        metadata.setCalculationId(CalculationEngine.fastUUID());
+        metadata.setTenantId(tenantId);
+        metadata.setCalculationStartedAt(CalculationEngine.ISO_FORMATTER.format(startedAt));
+        metadata.setCalculationCompletedAt(CalculationEngine.ISO_FORMATTER.format(completedAt));
+        metadata.setCalculationDurationMs(durationMs);
+        metadata.setCalculationOutcome(failed ? "FAILURE" : "SUCCESS");
+
+        CalculationResponse response = new CalculationResponse();
+        response.setCalculationMetadata(metadata);
+        response.setCalculationResult(calcResult);
+
+        executeNanos += System.nanoTime() - finishStart;
+        timings.recordPhase(EngineTimings.Phase.EXECUTE, executeNanos);
+        return response;
+    }
+
+    private List<Integer> collectMessages(List<CalculationMessage> messages) {
+        List<Integer> messageIndexes = new ArrayList<>(messages.size());
+        for (CalculationMessage msg : messages) {
+            msg.setId(allMessages.size());
+            messageIndexes.add(msg.getId());
+            allMessages.add(msg);
+        }
+        return messageIndexes;
+    }
+}
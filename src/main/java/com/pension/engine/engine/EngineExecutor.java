@@ -0,0 +1,104 @@
+package com.pension.engine.engine;
+
+import com.pension.engine.metrics.MetricsSource;
+import com.pension.engine.metrics.MetricsWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs calculations off the Netty event loops on a fixed pool of platform threads with a bounded
+ * queue. When the queue is full, {@link #submit} fails immediately with a
+ * {@link RejectedExecutionException} so the caller can shed load instead of piling up work.
+ */
+@Component
+public class EngineExecutor implements MetricsSource {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public EngineExecutor(@Value("${engine.executor.threads:0}") int threads,
+                          @Value("${engine.executor.queue-capacity:256}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "engine-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Runs {@code task} on the engine pool. The returned Mono fails with
+     * {@link RejectedExecutionException} right away if the queue is full.
+     */
+    public <T> Mono<T> submit(Callable<T> task) {
+        return Mono.create(sink -> {
+            long enqueuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    long waited = System.nanoTime() - enqueuedAt;
+                    waits.increment();
+                    waitNanos.add(waited);
+                    maxWaitNanos.accumulateAndGet(waited, Math::max);
+                    try {
+                        sink.success(task.call());
+                    } catch (Throwable e) {
+                        sink.error(e);
+                    } finally {
+                        completed.increment();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                sink.error(e);
+            }
+        });
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter out) {
+        out.gauge("engine_executor_threads", "Engine worker threads", executor.getMaximumPoolSize())
+                .gauge("engine_executor_active_threads", "Engine workers currently running a calculation",
+                        executor.getActiveCount())
+                .gauge("engine_executor_queue_depth", "Calculations waiting for an engine worker",
+                        executor.getQueue().size())
+                .gauge("engine_executor_queue_capacity", "Maximum calculations waiting before requests are shed",
+                        queueCapacity)
+                .counter("engine_executor_completed_total", "Tasks run by the engine pool: request body chunks, responses and batch lines", completed.sum())
+                .counter("engine_executor_rejected_total", "Tasks rejected because the queue was full; requests not yet started are shed with 503",
+                        rejected.sum())
+                .header("engine_executor_wait_seconds", "Time calculations spent queued before a worker picked them up",
+                        "summary")
+                .sample("engine_executor_wait_seconds_count", waits.sum())
+                .sample("engine_executor_wait_seconds_sum", waitNanos.sum() / 1e9)
+                .gauge("engine_executor_wait_seconds_max", "Longest queue wait since startup",
+                        maxWaitNanos.get() / 1e9);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
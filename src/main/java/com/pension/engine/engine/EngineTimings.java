@@ -0,0 +1,129 @@
+package com.pension.engine.engine;
+
+import com.pension.engine.metrics.MetricsWriter;
+import com.pension.engine.model.request.MutationDefinition;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nanosecond latency histograms per mutation definition and outcome, and per request phase, written to
+ * {@code /metrics} as Prometheus summaries in seconds.
+ *
+ * <p>Each series is an HdrHistogram {@link Recorder}: recording is wait-free and allocation-free, so timing a
+ * mutation costs two {@code nanoTime} calls and one counter increment. A scrape swaps out each recorder's interval
+ * histogram and folds it into a cumulative one, so the quantiles cover everything since startup. Values keep two
+ * significant digits up to one minute; longer ones are recorded as one minute. Each series also adds its raw
+ * nanoseconds to a {@link LongAdder} for the exact {@code _sum}. Series are created on first use.
+ */
+public final class EngineTimings {
+
+    /** Where a request's time goes: reading it, running its mutations, writing the response. */
+    public enum Phase {
+        PARSE, EXECUTE, SERIALIZE;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    /** How a mutation ended; {@code ERROR} is an exception out of its handler. */
+    public enum Outcome {
+        SUCCESS, WARNING, CRITICAL, ERROR;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final MutationDefinition[] DEFINITIONS = MutationDefinition.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final Phase[] PHASES = Phase.values();
+    // The last definition slot is for names the engine does not know
+    private static final int UNKNOWN = DEFINITIONS.length;
+
+    private final AtomicReferenceArray<Series> mutations =
+            new AtomicReferenceArray<>((DEFINITIONS.length + 1) * OUTCOMES.length);
+    private final AtomicReferenceArray<Series> phases = new AtomicReferenceArray<>(PHASES.length);
+
+    private static final class Series {
+        final Recorder recorder = new Recorder(HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+        final LongAdder sumNanos = new LongAdder();
+        // Scrape side only; guarded by the EngineTimings instance
+        final Histogram total = new Histogram(HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+        Histogram interval;
+
+        void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            sumNanos.add(nanos);
+            recorder.recordValue(Math.min(nanos, HIGHEST_NANOS));
+        }
+
+        Histogram collect() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total;
+        }
+    }
+
+    /** @param definition {@code null} for a mutation name the engine does not know */
+    public void recordMutation(MutationDefinition definition, Outcome outcome, long nanos) {
+        int slot = (definition == null ? UNKNOWN : definition.ordinal()) * OUTCOMES.length + outcome.ordinal();
+        series(mutations, slot).record(nanos);
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        series(phases, phase.ordinal()).record(nanos);
+    }
+
+    private static Series series(AtomicReferenceArray<Series> all, int slot) {
+        Series series = all.get(slot);
+        if (series == null) {
+            all.compareAndSet(slot, null, new Series());
+            series = all.get(slot);
+        }
+        return series;
+    }
+
+    synchronized void writeMetrics(MetricsWriter out) {
+        out.header("engine_mutation_duration_seconds",
+                "Time to execute one mutation, by mutation definition and outcome", "summary");
+        for (int slot = 0; slot < mutations.length(); slot++) {
+            Series series = mutations.get(slot);
+            if (series != null) {
+                int definition = slot / OUTCOMES.length;
+                write(out, "engine_mutation_duration_seconds", series,
+                        "mutation", definition == UNKNOWN ? "unknown" : DEFINITIONS[definition].definitionName(),
+                        "outcome", OUTCOMES[slot % OUTCOMES.length].label);
+            }
+        }
+        out.header("engine_request_phase_duration_seconds",
+                "Time per request spent parsing it, executing its mutations and serializing the response", "summary");
+        for (int slot = 0; slot < phases.length(); slot++) {
+            Series series = phases.get(slot);
+            if (series != null) {
+                write(out, "engine_request_phase_duration_seconds", series, "phase", PHASES[slot].label);
+            }
+        }
+    }
+
+    private static void write(MetricsWriter out, String name, Series series, String... labels) {
+        Histogram histogram = series.collect();
+        String[] quantileLabels = new String[labels.length + 2];
+        System.arraycopy(labels, 0, quantileLabels, 0, labels.length);
+        quantileLabels[labels.length] = "quantile";
+        for (int q = 0; q < QUANTILES.length; q++) {
+            quantileLabels[labels.length + 1] = QUANTILE_LABELS[q];
+            out.sample(name, histogram.getValueAtPercentile(QUANTILES[q] * 100) / NANOS_PER_SECOND, quantileLabels);
+        }
+        long count = histogram.getTotalCount();
+        out.sample(name + "_sum", series.sumNanos.sum() / NANOS_PER_SECOND, labels);
+        out.sample(name + "_count", count, labels);
+    }
+}
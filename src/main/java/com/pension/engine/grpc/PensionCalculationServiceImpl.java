@@ -1,18 +1,36 @@
 package com.pension.engine.grpc;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.*;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.protobuf.*;
 import com.google.protobuf.Struct;
 import com.google.protobuf.Value;
 import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.engine.EngineExecutor;
+import com.pension.engine.engine.EngineTimings;
+import com.pension.engine.model.request.AddPolicyProperties;
+import com.pension.engine.model.request.ApplyIndexationProperties;
+import com.pension.engine.model.request.CalculateRetirementBenefitProperties;
+import com.pension.engine.model.request.CreateDossierProperties;
+import com.pension.engine.model.request.MutationDefinition;
+import com.pension.engine.model.request.MutationProperties;
+import com.pension.engine.model.request.ProjectFutureBenefitsProperties;
+import com.pension.engine.patch.Patch;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 @GrpcService
 public class PensionCalculationServiceImpl
@@ -20,10 +38,17 @@ public class PensionCalculationServiceImpl
 
     private final CalculationEngine engine;
     private final ObjectMapper mapper;
+    private final EngineExecutor engineExecutor;
+    private final int streamConcurrency;
 
-    public PensionCalculationServiceImpl(CalculationEngine engine, ObjectMapper mapper) {
+    public PensionCalculationServiceImpl(
+            CalculationEngine engine, ObjectMapper mapper, EngineExecutor engineExecutor,
+            @org.springframework.beans.factory.annotation.Value("${engine.stream.concurrency:0}") int streamConcurrency) {
         this.engine = engine;
         this.mapper = mapper;
+        this.engineExecutor = engineExecutor;
+        this.streamConcurrency = streamConcurrency > 0
+                ? streamConcurrency : 2 * Runtime.getRuntime().availableProcessors();
     }
 
     @Override
@@ -31,11 +56,15 @@ public class PensionCalculationServiceImpl
             com.pension.engine.grpc.CalculationRequest protoRequest,
             StreamObserver<com.pension.engine.grpc.CalculationResponse> responseObserver) {
         try {
-            var javaRequest = convertRequestFromProto(protoRequest);
-            var javaResponse = engine.processSync(javaRequest);
-            var protoResponse = convertResponseToProto(javaResponse);
+            var javaRequest = parse(protoRequest);
+            var javaResponse = engine.processSync(javaRequest, !protoRequest.getOmitPatches());
+            var protoResponse = serialize(javaResponse);
             responseObserver.onNext(protoResponse);
             responseObserver.onCompleted();
+        } catch (InvalidMutationException e) {
+            responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
         } catch (Exception e) {
             responseObserver.onError(io.grpc.Status.INTERNAL
                     .withDescription(e.getMessage())
@@ -43,8 +72,150 @@ public class PensionCalculationServiceImpl
         }
     }
 
+    @Override
+    public StreamObserver<CalculationStreamRequest> calculateStream(
+            StreamObserver<CalculationStreamResponse> responseObserver) {
+        return new CalculationStream((ServerCallStreamObserver<CalculationStreamResponse>) responseObserver);
+    }
+
+    /**
+     * One bidirectional call. At most {@code streamConcurrency} requests are pulled from the client
+     * before their responses have been handed to the transport: a new request is only asked for once
+     * a response has been sent, and responses are only sent while the outbound side is ready.
+     */
+    private final class CalculationStream implements StreamObserver<CalculationStreamRequest> {
+
+        private final ServerCallStreamObserver<CalculationStreamResponse> out;
+        private final Queue<CalculationStreamResponse> completed = new ConcurrentLinkedQueue<>();
+        // Requests received whose response has not been sent yet; guarded by this
+        private int pending;
+        private boolean inputDone;
+        private boolean closed;
+
+        CalculationStream(ServerCallStreamObserver<CalculationStreamResponse> out) {
+            this.out = out;
+            out.disableAutoRequest();
+            out.setOnReadyHandler(this::drain);
+            out.setOnCancelHandler(() -> {
+                synchronized (this) {
+                    closed = true;
+                }
+            });
+            out.request(streamConcurrency);
+        }
+
+        @Override
+        public void onNext(CalculationStreamRequest request) {
+            synchronized (this) {
+                pending++;
+            }
+            String correlationId = request.getCorrelationId();
+            engineExecutor.submit(() -> calculate(request))
+                    .subscribe(this::complete, e -> complete(error(correlationId,
+                            e instanceof RejectedExecutionException ? 503 : 500,
+                            e instanceof RejectedExecutionException
+                                    ? "Calculation capacity exhausted, retry later" : e.getMessage())));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                closed = true;
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                inputDone = true;
+            }
+            drain();
+        }
+
+        private void complete(CalculationStreamResponse response) {
+            completed.add(response);
+            drain();
+        }
+
+        private synchronized void drain() {
+            if (closed) {
+                completed.clear();
+                return;
+            }
+            CalculationStreamResponse response;
+            while (out.isReady() && (response = completed.poll()) != null) {
+                out.onNext(response);
+                pending--;
+                if (!inputDone) {
+                    out.request(1);
+                }
+            }
+            if (inputDone && pending == 0) {
+                closed = true;
+                out.onCompleted();
+            }
+        }
+    }
+
+    private CalculationStreamResponse calculate(CalculationStreamRequest streamRequest) {
+        String correlationId = streamRequest.getCorrelationId();
+        var protoRequest = streamRequest.getRequest();
+        if (protoRequest.getTenantId().isEmpty()) {
+            return error(correlationId, 400, "tenant_id is required");
+        }
+        if (protoRequest.getCalculationInstructions().getMutationsCount() == 0) {
+            return error(correlationId, 400, "At least one mutation is required");
+        }
+        try {
+            var javaResponse = engine.processSync(parse(protoRequest), !protoRequest.getOmitPatches());
+            return CalculationStreamResponse.newBuilder()
+                    .setCorrelationId(correlationId)
+                    .setResponse(serialize(javaResponse))
+                    .build();
+        } catch (InvalidMutationException e) {
+            return error(correlationId, 400, e.getMessage());
+        } catch (Exception e) {
+            return error(correlationId, 500, e.getMessage());
+        }
+    }
+
+    private static CalculationStreamResponse error(String correlationId, int status, String message) {
+        var error = CalculationError.newBuilder().setStatus(status);
+        if (message != null) {
+            error.setMessage(message);
+        }
+        return CalculationStreamResponse.newBuilder()
+                .setCorrelationId(correlationId)
+                .setError(error)
+                .build();
+    }
+
+    // Protobuf itself is decoded and encoded by the transport; the parse and serialize phases are the conversions
+
+    private com.pension.engine.model.request.CalculationRequest parse(com.pension.engine.grpc.CalculationRequest proto) {
+        long start = System.nanoTime();
+        var request = convertRequestFromProto(proto);
+        engine.timings().recordPhase(EngineTimings.Phase.PARSE, System.nanoTime() - start);
+        return request;
+    }
+
+    private com.pension.engine.grpc.CalculationResponse serialize(
+            com.pension.engine.model.response.CalculationResponse response) {
+        long start = System.nanoTime();
+        var proto = convertResponseToProto(response);
+        engine.timings().recordPhase(EngineTimings.Phase.SERIALIZE, System.nanoTime() - start);
+        return proto;
+    }
+
     // ── Proto → Java conversion (request) ──
 
+    /** A mutation the engine cannot run as sent; answered with INVALID_ARGUMENT (400 on the stream). */
+    static final class InvalidMutationException extends RuntimeException {
+        InvalidMutationException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
     private com.pension.engine.model.request.CalculationRequest convertRequestFromProto(
             com.pension.engine.grpc.CalculationRequest proto) {
         var java = new com.pension.engine.model.request.CalculationRequest();
@@ -71,12 +242,61 @@ public class PensionCalculationServiceImpl
         if (proto.hasDossierId()) {
             java.setDossierId(proto.getDossierId());
         }
-        if (proto.hasMutationProperties()) {
-            java.setMutationProperties(structToJsonNode(proto.getMutationProperties()));
+        if (proto.getPropertiesCase() != com.pension.engine.grpc.Mutation.PropertiesCase.PROPERTIES_NOT_SET) {
+            // The handlers take the properties record of their own definition; an unknown name is reported
+            // by the engine as UNKNOWN_MUTATION whatever its properties
+            MutationDefinition definition = java.getDefinition();
+            if (definition != null && definition != definitionOf(proto.getPropertiesCase())) {
+                throw new InvalidMutationException("Mutation " + proto.getMutationId() + " is "
+                        + definition.definitionName() + " but carries "
+                        + definitionOf(proto.getPropertiesCase()).definitionName() + " properties");
+            }
+            java.setProperties(convertPropertiesFromProto(proto));
+        } else if (proto.hasMutationProperties()) {
+            java.setMutationProperties(structToTokens(proto.getMutationProperties()));
         }
         return java;
     }
 
+    private static MutationDefinition definitionOf(com.pension.engine.grpc.Mutation.PropertiesCase propertiesCase) {
+        return switch (propertiesCase) {
+            case CREATE_DOSSIER -> MutationDefinition.CREATE_DOSSIER;
+            case ADD_POLICY -> MutationDefinition.ADD_POLICY;
+            case APPLY_INDEXATION -> MutationDefinition.APPLY_INDEXATION;
+            case CALCULATE_RETIREMENT_BENEFIT -> MutationDefinition.CALCULATE_RETIREMENT_BENEFIT;
+            case PROJECT_FUTURE_BENEFITS -> MutationDefinition.PROJECT_FUTURE_BENEFITS;
+            case PROPERTIES_NOT_SET -> null;
+        };
+    }
+
+    private MutationProperties convertPropertiesFromProto(com.pension.engine.grpc.Mutation proto) {
+        return switch (proto.getPropertiesCase()) {
+            case CREATE_DOSSIER -> {
+                var p = proto.getCreateDossier();
+                yield CreateDossierProperties.of(p.getDossierId(), p.getPersonId(), p.getName(), p.getBirthDate());
+            }
+            case ADD_POLICY -> {
+                var p = proto.getAddPolicy();
+                yield AddPolicyProperties.of(p.getSchemeId(), p.getEmploymentStartDate(),
+                        p.getSalary(), p.getPartTimeFactor());
+            }
+            case APPLY_INDEXATION -> {
+                var p = proto.getApplyIndexation();
+                yield ApplyIndexationProperties.of(p.getPercentage(),
+                        p.hasSchemeId() ? p.getSchemeId() : null,
+                        p.hasEffectiveBefore() ? p.getEffectiveBefore() : null);
+            }
+            case CALCULATE_RETIREMENT_BENEFIT ->
+                    CalculateRetirementBenefitProperties.of(proto.getCalculateRetirementBenefit().getRetirementDate());
+            case PROJECT_FUTURE_BENEFITS -> {
+                var p = proto.getProjectFutureBenefits();
+                yield ProjectFutureBenefitsProperties.of(p.getProjectionStartDate(), p.getProjectionEndDate(),
+                        p.getProjectionIntervalMonths());
+            }
+            case PROPERTIES_NOT_SET -> null;
+        };
+    }
+
     // ── Java → Proto conversion (response) ──
 
     private com.pension.engine.grpc.CalculationResponse convertResponseToProto(
@@ -136,10 +356,10 @@ public class PensionCalculationServiceImpl
         }
 
         if (java.getForwardPatch() != null) {
-            builder.setForwardPatchToSituationAfterThisMutation(jsonNodeToValue(java.getForwardPatch()));
+            builder.setForwardPatchToSituationAfterThisMutation(patchToValue(java.getForwardPatch()));
         }
         if (java.getBackwardPatch() != null) {
-            builder.setBackwardPatchToPreviousSituation(jsonNodeToValue(java.getBackwardPatch()));
+            builder.setBackwardPatchToPreviousSituation(patchToValue(java.getBackwardPatch()));
         }
         return builder.build();
     }
@@ -154,12 +374,51 @@ public class PensionCalculationServiceImpl
         if (java.getDossierId() != null) {
             builder.setDossierId(java.getDossierId());
         }
+        // Echo the properties in the form they arrived in
         if (java.getMutationProperties() != null) {
-            builder.setMutationProperties(jsonNodeToStruct(java.getMutationProperties()));
+            builder.setMutationProperties(tokensToStruct(java.getMutationProperties()));
+        } else if (java.getProperties() != null) {
+            setPropertiesOnProto(builder, java.getProperties());
         }
         return builder.build();
     }
 
+    private void setPropertiesOnProto(com.pension.engine.grpc.Mutation.Builder builder, MutationProperties properties) {
+        switch (properties) {
+            case CreateDossierProperties p -> builder.setCreateDossier(
+                    com.pension.engine.grpc.CreateDossierProperties.newBuilder()
+                            .setDossierId(p.dossierId())
+                            .setPersonId(p.personId())
+                            .setName(p.name())
+                            .setBirthDate(p.birthDate()));
+            case AddPolicyProperties p -> builder.setAddPolicy(
+                    com.pension.engine.grpc.AddPolicyProperties.newBuilder()
+                            .setSchemeId(p.schemeId())
+                            .setEmploymentStartDate(p.employmentStartDate())
+                            .setSalary(p.salary())
+                            .setPartTimeFactor(p.partTimeFactor()));
+            case ApplyIndexationProperties p -> {
+                var proto = com.pension.engine.grpc.ApplyIndexationProperties.newBuilder()
+                        .setPercentage(p.percentage());
+                if (p.schemeId() != null) {
+                    proto.setSchemeId(p.schemeId());
+                }
+                if (p.effectiveBefore() != null) {
+                    proto.setEffectiveBefore(p.effectiveBefore());
+                }
+                builder.setApplyIndexation(proto);
+            }
+            case CalculateRetirementBenefitProperties p -> builder.setCalculateRetirementBenefit(
+                    com.pension.engine.grpc.CalculateRetirementBenefitProperties.newBuilder()
+                            .setRetirementDate(p.retirementDate()));
+            case ProjectFutureBenefitsProperties p -> builder.setProjectFutureBenefits(
+                    com.pension.engine.grpc.ProjectFutureBenefitsProperties.newBuilder()
+                            .setProjectionStartDate(p.projectionStartDate())
+                            .setProjectionEndDate(p.projectionEndDate())
+                            .setProjectionIntervalMonths(p.projectionIntervalMonths()));
+        }
+    }
+
     private com.pension.engine.grpc.SituationSnapshot convertSnapshotToProto(
             com.pension.engine.model.response.SituationSnapshot java) {
         var builder = com.pension.engine.grpc.SituationSnapshot.newBuilder()
@@ -241,58 +500,105 @@ public class PensionCalculationServiceImpl
                 .build();
     }
 
-    // ── Struct/Value ↔ JsonNode conversion ──
+    // ── Struct/Value ↔ JSON conversion ──
+
+    /** Replays a Struct as JSON tokens; integral numbers are written as ints/longs like a JSON client sends them. */
+    private TokenBuffer structToTokens(Struct struct) {
+        TokenBuffer tokens = new TokenBuffer(mapper, false);
+        try {
+            writeStruct(struct, tokens);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
 
-    private JsonNode structToJsonNode(Struct struct) {
-        ObjectNode node = mapper.createObjectNode();
+    private void writeStruct(Struct struct, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
         for (Map.Entry<String, Value> entry : struct.getFieldsMap().entrySet()) {
-            node.set(entry.getKey(), valueToJsonNode(entry.getValue()));
+            gen.writeFieldName(entry.getKey());
+            writeValue(entry.getValue(), gen);
         }
-        return node;
+        gen.writeEndObject();
     }
 
-    private JsonNode valueToJsonNode(Value value) {
+    private void writeValue(Value value, JsonGenerator gen) throws IOException {
         switch (value.getKindCase()) {
-            case NULL_VALUE:
-                return NullNode.getInstance();
-            case NUMBER_VALUE: {
+            case NUMBER_VALUE -> {
                 double d = value.getNumberValue();
                 if (d == Math.floor(d) && !Double.isInfinite(d) && Math.abs(d) < Long.MAX_VALUE) {
                     long l = (long) d;
                     if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
-                        return IntNode.valueOf((int) l);
+                        gen.writeNumber((int) l);
+                    } else {
+                        gen.writeNumber(l);
                     }
-                    return LongNode.valueOf(l);
+                } else {
+                    gen.writeNumber(d);
                 }
-                return DoubleNode.valueOf(d);
             }
-            case STRING_VALUE:
-                return TextNode.valueOf(value.getStringValue());
-            case BOOL_VALUE:
-                return BooleanNode.valueOf(value.getBoolValue());
-            case STRUCT_VALUE:
-                return structToJsonNode(value.getStructValue());
-            case LIST_VALUE: {
-                ArrayNode arr = mapper.createArrayNode();
+            case STRING_VALUE -> gen.writeString(value.getStringValue());
+            case BOOL_VALUE -> gen.writeBoolean(value.getBoolValue());
+            case STRUCT_VALUE -> writeStruct(value.getStructValue(), gen);
+            case LIST_VALUE -> {
+                gen.writeStartArray();
                 for (Value v : value.getListValue().getValuesList()) {
-                    arr.add(valueToJsonNode(v));
+                    writeValue(v, gen);
                 }
-                return arr;
+                gen.writeEndArray();
             }
-            default:
-                return NullNode.getInstance();
+            default -> gen.writeNull();
         }
     }
 
-    private Struct jsonNodeToStruct(JsonNode node) {
+    private Struct tokensToStruct(TokenBuffer tokens) {
+        JsonNode node;
+        try (JsonParser p = tokens.asParser(mapper)) {
+            node = mapper.readTree(p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         Struct.Builder builder = Struct.newBuilder();
-        if (node.isObject()) {
+        if (node != null && node.isObject()) {
             node.fields().forEachRemaining(e ->
                     builder.putFields(e.getKey(), jsonNodeToValue(e.getValue())));
         }
         return builder.build();
     }
 
+    private Value patchToValue(Patch patch) {
+        ListValue.Builder ops = ListValue.newBuilder();
+        for (int i = 0; i < patch.size(); i++) {
+            Struct.Builder op = Struct.newBuilder()
+                    .putFields("op", Value.newBuilder().setStringValue(patch.op(i).jsonName()).build())
+                    .putFields("path", Value.newBuilder().setStringValue(patch.path(i)).build());
+            Value value = switch (patch.valueKind(i)) {
+                case NONE -> null;
+                case NULL -> Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+                case NUMBER -> Value.newBuilder().setNumberValue(patch.number(i)).build();
+                case TEXT -> Value.newBuilder().setStringValue(patch.text(i)).build();
+                case NODE -> jsonNodeToValue(patch.node(i));
+                case PROJECTIONS -> projectionsToValue(patch.projections(i));
+            };
+            if (value != null) {
+                op.putFields("value", value);
+            }
+            ops.addValues(Value.newBuilder().setStructValue(op));
+        }
+        return Value.newBuilder().setListValue(ops).build();
+    }
+
+    private Value projectionsToValue(List<com.pension.engine.model.state.Projection> projections) {
+        ListValue.Builder list = ListValue.newBuilder();
+        for (var projection : projections) {
+            list.addValues(Value.newBuilder().setStructValue(Struct.newBuilder()
+                    .putFields("date", Value.newBuilder().setStringValue(projection.getDate()).build())
+                    .putFields("projected_pension",
+                            Value.newBuilder().setNumberValue(projection.getProjectedPension()).build())));
+        }
+        return Value.newBuilder().setListValue(list).build();
+    }
+
     private Value jsonNodeToValue(JsonNode node) {
         if (node == null || node.isNull()) {
             return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
@@ -1,59 +1,233 @@
 package com.pension.engine.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.pension.engine.engine.CalculationEngine;
-import com.pension.engine.model.request.CalculationRequest;
+import com.pension.engine.engine.EngineExecutor;
+import com.pension.engine.engine.EngineTimings;
 import com.pension.engine.model.response.CalculationResponse;
 import com.pension.engine.model.response.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @Component
 public class CalculationHandler {
 
-    private final CalculationEngine engine;
-    private final ObjectReader requestReader;
+    // Initial capacity; the pooled buffer grows in place for large projections
+    private static final int RESPONSE_BUFFER_SIZE = 16 * 1024;
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+    // The pool is shared between single requests and batch lines; work already under way waits for room
+    private static final Retry SUBMIT_RETRY = Retry.backoff(10, Duration.ofMillis(5))
+            .filter(RejectedExecutionException.class::isInstance);
+
+    // "?patches=false" or "X-Patches: false" skips building the forward/backward patches
+    private static final String PATCHES_PARAM = "patches";
+    private static final String PATCHES_HEADER = "X-Patches";
+
+    private final EngineExecutor engineExecutor;
+    private final EngineTimings timings;
+    private final StreamingCalculationReader streamingReader;
     private final ObjectWriter responseWriter;
+    private final ObjectWriter errorWriter;
+    private final StringDecoder lineDecoder;
+    private final int batchConcurrency;
+    private final int batchReadAhead;
 
-    public CalculationHandler(CalculationEngine engine, ObjectMapper mapper) {
-        this.engine = engine;
-        this.requestReader = mapper.readerFor(CalculationRequest.class);
+    public CalculationHandler(CalculationEngine engine, EngineExecutor engineExecutor, ObjectMapper mapper,
+                              @Value("${engine.batch.concurrency:0}") int batchConcurrency,
+                              @Value("${engine.batch.read-ahead:1024}") int batchReadAhead) {
+        this.engineExecutor = engineExecutor;
+        this.timings = engine.timings();
+        this.streamingReader = new StreamingCalculationReader(engine, mapper);
         this.responseWriter = mapper.writerFor(CalculationResponse.class);
+        this.errorWriter = mapper.writerFor(ErrorResponse.class);
+        // Batch lines are whole requests; like the single endpoint, their size is not capped
+        this.lineDecoder = StringDecoder.allMimeTypes(List.of("\n"), true);
+        this.lineDecoder.setMaxInMemorySize(-1);
+        this.batchConcurrency = batchConcurrency > 0 ? batchConcurrency : 2 * Runtime.getRuntime().availableProcessors();
+        this.batchReadAhead = Math.max(1, batchReadAhead);
     }
 
+    /**
+     * Parses the body as it arrives: each chunk is fed to the request's {@link StreamingCalculationReader.Feed}
+     * on the engine pool, which executes the mutations it completes and releases the chunk. The response is
+     * built once the body ends, or as soon as a mutation fails critically.
+     */
     public Mono<ServerResponse> handleCalculation(ServerRequest request) {
-        return request.bodyToMono(byte[].class)
-                .flatMap(bytes -> {
-                    try {
-                        CalculationRequest calcRequest = requestReader.readValue(bytes);
-
-                        // Validation
-                        if (calcRequest.getTenantId() == null || calcRequest.getTenantId().isEmpty()) {
-                            return ServerResponse.badRequest()
-                                    .bodyValue(new ErrorResponse(400, "tenant_id is required"));
-                        }
-                        if (calcRequest.getCalculationInstructions() == null ||
-                                calcRequest.getCalculationInstructions().getMutations() == null ||
-                                calcRequest.getCalculationInstructions().getMutations().isEmpty()) {
-                            return ServerResponse.badRequest()
-                                    .bodyValue(new ErrorResponse(400, "At least one mutation is required"));
-                        }
-
-                        CalculationResponse response = engine.processSync(calcRequest);
-                        byte[] responseBytes = responseWriter.writeValueAsBytes(response);
-                        return ServerResponse.ok()
-                                .header("Content-Type", "application/json")
-                                .bodyValue(responseBytes);
-                    } catch (Exception e) {
-                        return ServerResponse.status(500)
-                                .bodyValue(new ErrorResponse(500, e.getMessage()));
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        boolean patches = patchesRequested(request);
+        StreamingCalculationReader.Feed feed;
+        try {
+            feed = streamingReader.open(patches);
+        } catch (IOException e) {
+            return internalError(e);
+        }
+        return request.body(BodyExtractors.toDataBuffers())
+                .concatMap(buffer -> {
+                    if (feed.isDone()) {
+                        // Settled before the body ended; the rest is drained and dropped
+                        DataBufferUtils.release(buffer);
+                        return Mono.empty();
                     }
-                })
-                .onErrorResume(e -> ServerResponse.status(500)
-                        .bodyValue(new ErrorResponse(500, "Internal server error: " + e.getMessage())));
+                    return submit(feed, () -> feedChunk(feed, buffer))
+                            .doOnError(e -> {
+                                // The task never ran, so the chunk is still ours to release
+                                if (neverRan(e)) {
+                                    DataBufferUtils.release(buffer);
+                                }
+                            });
+                }, 1)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then(Mono.defer(() -> submit(feed, () -> respond(feed, bufferFactory))))
+                .flatMap(Function.identity())
+                .onErrorResume(StreamingCalculationReader.InvalidRequestException.class, e -> ServerResponse.badRequest()
+                        .bodyValue(new ErrorResponse(400, e.getMessage())))
+                .onErrorResume(CalculationHandler::neverRan, e -> ServerResponse.status(503)
+                        .header("Retry-After", "1")
+                        .bodyValue(new ErrorResponse(503, "Calculation capacity exhausted, retry later")))
+                .onErrorResume(CalculationHandler::internalError);
+    }
+
+    /**
+     * Runs {@code task} on the engine pool. A request is shed right away if none of it has run yet; once
+     * mutations have executed, it waits for room like a batch line instead of throwing that work away.
+     */
+    private <T> Mono<T> submit(StreamingCalculationReader.Feed feed, Callable<T> task) {
+        Mono<T> submitted = engineExecutor.submit(task);
+        return feed.started() ? submitted.retryWhen(SUBMIT_RETRY) : submitted;
+    }
+
+    private static boolean neverRan(Throwable e) {
+        return e instanceof RejectedExecutionException || Exceptions.isRetryExhausted(e);
+    }
+
+    private static Mono<ServerResponse> internalError(Throwable e) {
+        return ServerResponse.status(500)
+                .bodyValue(new ErrorResponse(500, e.getMessage()));
+    }
+
+    /** Runs on an engine worker: parses the chunk, executing the mutations it completes, and releases it. */
+    private Void feedChunk(StreamingCalculationReader.Feed feed, DataBuffer buffer) throws IOException {
+        // Parse straight from the pooled request buffer
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                feed.feed(chunks.next());
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return null;
+    }
+
+    /** Runs on an engine worker: finishes the request, then serializes the response. */
+    private Mono<ServerResponse> respond(StreamingCalculationReader.Feed feed, DataBufferFactory bufferFactory)
+            throws IOException {
+        CalculationResponse response = feed.finish();
+        long start = System.nanoTime();
+        DataBuffer body = serialize(responseWriter, response, bufferFactory);
+        timings.recordPhase(EngineTimings.Phase.SERIALIZE, System.nanoTime() - start);
+        return ServerResponse.ok()
+                .header("Content-Type", "application/json")
+                .contentLength(body.readableByteCount())
+                .body(BodyInserters.fromDataBuffers(Mono.just(body)));
+    }
+
+    /**
+     * NDJSON batch: one request per input line, one response line per request in input order.
+     * Lines run in parallel on the engine pool with at most {@code batchConcurrency} in flight;
+     * a line that fails produces an error line in its place instead of ending the stream.
+     * At most {@code batchReadAhead} lines are read ahead of the responses; a client that sends more than that
+     * before reading any response stalls once the socket buffers fill.
+     * The patches option applies to every line.
+     */
+    public Mono<ServerResponse> handleBatch(ServerRequest request) {
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        boolean patches = patchesRequested(request);
+        Flux<DataBuffer> responses = lineDecoder
+                .decode(request.body(BodyExtractors.toDataBuffers()), STRING_TYPE, null, Map.of())
+                .filter(line -> !line.isBlank())
+                // Read up to batchReadAhead lines ahead of the computation, so a client that sends a batch
+                // before reading any response does not deadlock against the bounded output. Past that the
+                // body waits in the socket instead of in memory.
+                .publishOn(Schedulers.immediate(), batchReadAhead)
+                .flatMapSequential(line -> engineExecutor.submit(() -> calculateLine(line, bufferFactory, patches))
+                                // The pool is shared with single requests; wait for room rather than drop a line
+                                .retryWhen(SUBMIT_RETRY)
+                                .onErrorResume(Exceptions::isRetryExhausted, e -> Mono.fromCallable(() -> serializeLine(errorWriter,
+                                        new ErrorResponse(503, "Calculation capacity exhausted, retry later"),
+                                        bufferFactory))),
+                        batchConcurrency, 1)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        return ServerResponse.ok()
+                .header("Content-Type", NDJSON)
+                .body(BodyInserters.fromDataBuffers(responses));
+    }
+
+    private DataBuffer calculateLine(String line, DataBufferFactory bufferFactory, boolean patches)
+            throws IOException {
+        try {
+            CalculationResponse response = streamingReader.read(line, patches);
+            long start = System.nanoTime();
+            DataBuffer buffer = serializeLine(responseWriter, response, bufferFactory);
+            timings.recordPhase(EngineTimings.Phase.SERIALIZE, System.nanoTime() - start);
+            return buffer;
+        } catch (StreamingCalculationReader.InvalidRequestException e) {
+            return serializeLine(errorWriter, new ErrorResponse(400, e.getMessage()), bufferFactory);
+        } catch (Exception e) {
+            return serializeLine(errorWriter, new ErrorResponse(500, e.getMessage()), bufferFactory);
+        }
+    }
+
+    private static boolean patchesRequested(ServerRequest request) {
+        String value = request.queryParam(PATCHES_PARAM)
+                .orElseGet(() -> request.headers().firstHeader(PATCHES_HEADER));
+        return !"false".equalsIgnoreCase(value);
+    }
+
+    private DataBuffer serializeLine(ObjectWriter writer, Object value, DataBufferFactory bufferFactory)
+            throws IOException {
+        DataBuffer buffer = serialize(writer, value, bufferFactory);
+        return buffer.write((byte) '\n');
+    }
+
+    /**
+     * Serializes straight into a buffer from the connection's (pooled) allocator, so the response
+     * never exists as an intermediate byte[]. The buffer is released by the write, or here on failure.
+     */
+    private static DataBuffer serialize(ObjectWriter writer, Object value, DataBufferFactory bufferFactory)
+            throws IOException {
+        DataBuffer buffer = bufferFactory.allocateBuffer(RESPONSE_BUFFER_SIZE);
+        try (OutputStream out = buffer.asOutputStream()) {
+            writer.writeValue(out, value);
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
     }
 }
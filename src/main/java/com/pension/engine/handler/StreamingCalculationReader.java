@@ -0,0 +1,338 @@
+package com.pension.engine.handler;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.engine.CalculationSession;
+import com.pension.engine.engine.EngineTimings;
+import com.pension.engine.model.request.Mutation;
+import com.pension.engine.model.response.CalculationResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a calculation request token by token as its body arrives and executes each mutation as soon as it is
+ * bound, instead of materializing the whole {@code CalculationRequest} first. Once a mutation fails
+ * critically the rest of the input is not read at all.
+ *
+ * <p>Mutations that arrive before {@code tenant_id} are held back until the tenant is known.
+ */
+final class StreamingCalculationReader {
+
+    private static final String TENANT_REQUIRED = "tenant_id is required";
+    private static final String MUTATION_REQUIRED = "At least one mutation is required";
+
+    private final CalculationEngine engine;
+    private final ObjectMapper mapper;
+    private final ObjectReader mutationReader;
+    private final ObjectReader stringReader;
+
+    StreamingCalculationReader(CalculationEngine engine, ObjectMapper mapper) {
+        this.engine = engine;
+        this.mapper = mapper;
+        this.mutationReader = mapper.readerFor(Mutation.class);
+        this.stringReader = mapper.readerFor(String.class);
+    }
+
+    /** Rejected request, answered with a 400 and this message. */
+    static final class InvalidRequestException extends RuntimeException {
+        InvalidRequestException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Starts reading one request whose body arrives in chunks.
+     *
+     * @param patches whether the response carries forward/backward patches
+     */
+    Feed open(boolean patches) throws IOException {
+        return new Feed(patches);
+    }
+
+    /** Reads one NDJSON line. */
+    CalculationResponse read(String json, boolean patches) throws IOException {
+        Feed feed = open(patches);
+        feed.feed(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        return feed.finish();
+    }
+
+    private enum State { EXPECT_ROOT, ROOT, INSTRUCTIONS, MUTATIONS, DONE }
+
+    /**
+     * One request read through Jackson's non-blocking parser: each chunk is parsed as far as it goes and the
+     * mutations it completes are executed before {@link #feed} returns, so the chunk can be released right away.
+     * A value split across chunks is kept as tokens until it is complete. Calls must not overlap, but may come
+     * from different threads.
+     */
+    final class Feed {
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final Request request;
+        private State state = State.EXPECT_ROOT;
+        // Field whose value is the next token, at the ROOT or INSTRUCTIONS level
+        private String field;
+        // The tenant_id or mutation being captured, and how deep inside it the parser is
+        private TokenBuffer value;
+        private int valueDepth;
+        // Depth inside a value that is skipped
+        private int skipDepth;
+        private CalculationResponse response;
+        private long busyNanos;
+        private boolean started;
+
+        private Feed(boolean patches) throws IOException {
+            this.parser = mapper.getFactory().createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.request = new Request(patches);
+        }
+
+        /** Whether the outcome is settled, either the whole request was read or a mutation failed critically. */
+        boolean isDone() {
+            return state == State.DONE;
+        }
+
+        /** Whether any input was fed, so mutations may have executed. */
+        boolean started() {
+            return started;
+        }
+
+        /** Parses {@code chunk} completely and executes the mutations it completes; ignored once done. */
+        void feed(ByteBuffer chunk) throws IOException {
+            started = true;
+            if (state == State.DONE) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                feeder.feedInput(chunk);
+                drain();
+            } finally {
+                busyNanos += System.nanoTime() - start;
+            }
+        }
+
+        /**
+         * Ends the input and returns the response. Records the time not spent executing mutations as the
+         * request's parse phase.
+         */
+        CalculationResponse finish() throws IOException {
+            long start = System.nanoTime();
+            try (parser) {
+                if (state != State.DONE) {
+                    feeder.endOfInput();
+                    drain();
+                    if (state == State.EXPECT_ROOT) {
+                        throw new JsonParseException(parser, "Expected a JSON object");
+                    }
+                    if (state != State.DONE) {
+                        throw new JsonParseException(parser, "Unexpected end-of-input");
+                    }
+                }
+            }
+            busyNanos += System.nanoTime() - start;
+            // Parsing and execution interleave, so parsing is whatever the session did not spend executing
+            engine.timings().recordPhase(EngineTimings.Phase.PARSE, busyNanos - request.session.executeNanos());
+            return response;
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while (state != State.DONE && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (value != null) {
+                    capture(token);
+                } else if (skipDepth > 0) {
+                    skip(token);
+                } else if (field != null) {
+                    String name = field;
+                    field = null;
+                    if (state == State.ROOT) {
+                        rootValue(name, token);
+                    } else {
+                        instructionsValue(name, token);
+                    }
+                } else {
+                    structure(token);
+                }
+            }
+        }
+
+        private void structure(JsonToken token) throws IOException {
+            switch (state) {
+                case EXPECT_ROOT -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new JsonParseException(parser, "Expected a JSON object");
+                    }
+                    state = State.ROOT;
+                }
+                case ROOT -> {
+                    if (token == JsonToken.FIELD_NAME) {
+                        field = parser.currentName();
+                    } else {
+                        // End of the request; anything after it is not read
+                        response = request.finish();
+                        state = State.DONE;
+                    }
+                }
+                case INSTRUCTIONS -> {
+                    if (token == JsonToken.FIELD_NAME) {
+                        field = parser.currentName();
+                    } else {
+                        state = State.ROOT;
+                    }
+                }
+                case MUTATIONS -> {
+                    if (token == JsonToken.END_ARRAY) {
+                        state = State.INSTRUCTIONS;
+                    } else if (token == JsonToken.VALUE_NULL) {
+                        accept(null);
+                    } else {
+                        startCapture(token);
+                    }
+                }
+                default -> throw new IllegalStateException(state.name());
+            }
+        }
+
+        private void rootValue(String name, JsonToken token) throws IOException {
+            if ("tenant_id".equals(name)) {
+                if (token == JsonToken.VALUE_NULL) {
+                    request.tenant(null);
+                } else if (token == JsonToken.VALUE_STRING) {
+                    request.tenant(parser.getText());
+                } else {
+                    startCapture(token);
+                }
+            } else if ("calculation_instructions".equals(name) && token != JsonToken.VALUE_NULL) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected calculation_instructions to be an object");
+                }
+                state = State.INSTRUCTIONS;
+            } else {
+                startSkip(token);
+            }
+        }
+
+        private void instructionsValue(String name, JsonToken token) throws IOException {
+            if (!"mutations".equals(name) || token == JsonToken.VALUE_NULL) {
+                startSkip(token);
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of mutations");
+            }
+            state = State.MUTATIONS;
+        }
+
+        private void startSkip(JsonToken token) {
+            if (token.isStructStart()) {
+                skipDepth = 1;
+            }
+        }
+
+        private void skip(JsonToken token) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+        }
+
+        private void startCapture(JsonToken token) throws IOException {
+            value = new TokenBuffer(parser);
+            valueDepth = 0;
+            capture(token);
+        }
+
+        private void capture(JsonToken token) throws IOException {
+            value.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                valueDepth++;
+            } else if (token.isStructEnd()) {
+                valueDepth--;
+            }
+            if (valueDepth > 0) {
+                return;
+            }
+            TokenBuffer tokens = value;
+            value = null;
+            try (JsonParser p = tokens.asParser()) {
+                if (state == State.MUTATIONS) {
+                    accept(mutationReader.readValue(p));
+                } else {
+                    request.tenant(stringReader.readValue(p));
+                }
+            }
+        }
+
+        private void accept(Mutation mutation) {
+            if (!request.accept(mutation)) {
+                // The rest of the input is not read
+                response = request.session.finish();
+                state = State.DONE;
+            }
+        }
+    }
+
+    private final class Request {
+        private final boolean patches;
+        private String tenantId;
+        private CalculationSession session;
+        private List<Mutation> pending;
+        private boolean anyMutation;
+
+        Request(boolean patches) {
+            this.patches = patches;
+        }
+
+        void tenant(String tenantId) {
+            if (tenantId == null || tenantId.isEmpty()) {
+                throw new InvalidRequestException(TENANT_REQUIRED);
+            }
+            this.tenantId = tenantId;
+            if (pending != null) {
+                session = engine.newSession(tenantId, patches);
+                for (Mutation mutation : pending) {
+                    if (!session.accept(mutation)) {
+                        break;
+                    }
+                }
+                pending = null;
+            }
+        }
+
+        boolean accept(Mutation mutation) {
+            anyMutation = true;
+            if (tenantId == null) {
+                if (pending == null) {
+                    pending = new ArrayList<>();
+                }
+                pending.add(mutation);
+                return true;
+            }
+            if (session == null) {
+                session = engine.newSession(tenantId, patches);
+            }
+            return session.accept(mutation);
+        }
+
+        CalculationResponse finish() {
+            if (tenantId == null) {
+                throw new InvalidRequestException(TENANT_REQUIRED);
+            }
+            if (!anyMutation) {
+                throw new InvalidRequestException(MUTATION_REQUIRED);
+            }
+            return session.finish();
+        }
+    }
+}
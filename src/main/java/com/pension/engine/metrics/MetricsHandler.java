@@ -0,0 +1,33 @@
+package com.pension.engine.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/** Serves every {@link MetricsSource} in the Prometheus text format. */
+@Component
+public class MetricsHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<MetricsSource> sources;
+
+    public MetricsHandler(ObjectProvider<MetricsSource> sources) {
+        this.sources = sources.orderedStream().toList();
+    }
+
+    public Mono<ServerResponse> handleMetrics(ServerRequest request) {
+        StringBuilder body = new StringBuilder(4096);
+        MetricsWriter writer = new MetricsWriter(body);
+        for (MetricsSource source : sources) {
+            source.writeMetrics(writer);
+        }
+        return ServerResponse.ok()
+                .header("Content-Type", CONTENT_TYPE)
+                .bodyValue(body.toString());
+    }
+}
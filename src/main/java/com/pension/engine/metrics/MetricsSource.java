@@ -0,0 +1,10 @@
+package com.pension.engine.metrics;
+
+/**
+ * A component that contributes samples to {@code GET /metrics}. Every bean implementing this
+ * interface is picked up by {@link MetricsHandler}.
+ */
+public interface MetricsSource {
+
+    void writeMetrics(MetricsWriter out);
+}
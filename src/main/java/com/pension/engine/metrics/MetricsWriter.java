@@ -0,0 +1,57 @@
+package com.pension.engine.metrics;
+
+/**
+ * Appends samples in the Prometheus text exposition format (version 0.0.4).
+ * Label values are written as given; callers only pass fixed identifiers.
+ */
+public final class MetricsWriter {
+
+    private final StringBuilder out;
+
+    MetricsWriter(StringBuilder out) {
+        this.out = out;
+    }
+
+    public MetricsWriter gauge(String name, String help, double value) {
+        return header(name, help, "gauge").sample(name, value);
+    }
+
+    public MetricsWriter counter(String name, String help, double value) {
+        return header(name, help, "counter").sample(name, value);
+    }
+
+    /** Writes the {@code # HELP} and {@code # TYPE} lines; follow with {@link #sample} calls. */
+    public MetricsWriter header(String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public MetricsWriter sample(String name, double value) {
+        out.append(name).append(' ');
+        return value(value);
+    }
+
+    /** A sample with labels, given as alternating names and values. */
+    public MetricsWriter sample(String name, double value, String... labels) {
+        out.append(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+        }
+        out.append("} ");
+        return value(value);
+    }
+
+    private MetricsWriter value(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+        return this;
+    }
+}
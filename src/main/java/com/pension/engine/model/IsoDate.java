@@ -0,0 +1,204 @@
+package com.pension.engine.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * {@code yyyy-MM-dd} codec between text and epoch days, without {@link LocalDate} or the generic formatter.
+ *
+ * <p>The fast path handles exactly the canonical form: ten ASCII characters with a four-digit year, validated
+ * strictly (month 1-12, day within the month, leap years) like {@code LocalDate.parse}. Anything else, such as
+ * years beyond 9999, signs or invalid dates, goes through {@code LocalDate} itself. That path is rare and keeps
+ * the accepted inputs and the exception messages exactly what they were.
+ *
+ * <p>The calendar arithmetic is that of {@code LocalDate.toEpochDay} and {@code LocalDate.ofEpochDay}.
+ */
+public final class IsoDate {
+
+    /** Epoch day of a date string that does not parse. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int DAYS_PER_CYCLE = 146097;
+    private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+    private static final long MIN_YEAR = -999_999_999L;
+    private static final long MAX_YEAR = 999_999_999L;
+
+    private IsoDate() {}
+
+    /** Epoch day of an ISO date, or {@link #INVALID} if {@code LocalDate.parse} would reject it. */
+    public static long epochDay(CharSequence text) {
+        long day = parseCanonical(text);
+        if (day != INVALID || text == null) {
+            return day;
+        }
+        try {
+            return LocalDate.parse(text).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return INVALID;
+        }
+    }
+
+    /** Epoch day of an ISO date; otherwise throws exactly what {@code LocalDate.parse} throws. */
+    public static long epochDayOrThrow(CharSequence text) {
+        long day = parseCanonical(text);
+        return day != INVALID ? day : LocalDate.parse(text).toEpochDay();
+    }
+
+    /** {@link #epochDay(CharSequence)} over {@code length} bytes of UTF-8 text. */
+    public static long epochDay(byte[] utf8, int offset, int length) {
+        if (length == 10) {
+            int year = digits4(utf8[offset], utf8[offset + 1], utf8[offset + 2], utf8[offset + 3]);
+            int month = digits2(utf8[offset + 5], utf8[offset + 6]);
+            int day = digits2(utf8[offset + 8], utf8[offset + 9]);
+            if (year >= 0 && month >= 0 && day >= 0 && utf8[offset + 4] == '-' && utf8[offset + 7] == '-'
+                    && isValid(year, month, day)) {
+                return toEpochDay(year, month, day);
+            }
+        }
+        return epochDay(new String(utf8, offset, length, StandardCharsets.UTF_8));
+    }
+
+    private static long parseCanonical(CharSequence text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits4(text.charAt(0), text.charAt(1), text.charAt(2), text.charAt(3));
+        int month = digits2(text.charAt(5), text.charAt(6));
+        int day = digits2(text.charAt(8), text.charAt(9));
+        if (year < 0 || month < 0 || day < 0 || !isValid(year, month, day)) {
+            return INVALID;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    // Negative unless all characters are ASCII digits
+    private static int digits4(int a, int b, int c, int d) {
+        int hi = digits2(a, b);
+        int lo = digits2(c, d);
+        return (hi | lo) < 0 ? -1 : hi * 100 + lo;
+    }
+
+    private static int digits2(int a, int b) {
+        int hi = a - '0';
+        int lo = b - '0';
+        return (hi | lo | (9 - hi) | (9 - lo)) < 0 ? -1 : hi * 10 + lo;
+    }
+
+    private static boolean isValid(long year, int month, int day) {
+        return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month);
+    }
+
+    /** The canonical text of {@code epochDay}, identical to {@code LocalDate.ofEpochDay(epochDay).toString()}. */
+    public static String format(long epochDay) {
+        long civil = civil(epochDay);
+        long year = civil >> 9;
+        if (year < 0 || year > 9999) {
+            return LocalDate.ofEpochDay(epochDay).toString();
+        }
+        byte[] text = new byte[10];
+        write((int) year, (int) (civil >>> 5) & 15, (int) civil & 31, text, 0);
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the ten ASCII bytes of {@code epochDay} at {@code offset} and returns 10, or returns -1 without
+     * writing if the year is outside 0000-9999 and so has no ten-character form.
+     */
+    public static int format(long epochDay, byte[] out, int offset) {
+        long civil = civil(epochDay);
+        long year = civil >> 9;
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        write((int) year, (int) (civil >>> 5) & 15, (int) civil & 31, out, offset);
+        return 10;
+    }
+
+    private static void write(int year, int month, int day, byte[] out, int offset) {
+        out[offset] = (byte) ('0' + year / 1000);
+        out[offset + 1] = (byte) ('0' + year / 100 % 10);
+        out[offset + 2] = (byte) ('0' + year / 10 % 10);
+        out[offset + 3] = (byte) ('0' + year % 10);
+        out[offset + 4] = '-';
+        out[offset + 5] = (byte) ('0' + month / 10);
+        out[offset + 6] = (byte) ('0' + month % 10);
+        out[offset + 7] = '-';
+        out[offset + 8] = (byte) ('0' + day / 10);
+        out[offset + 9] = (byte) ('0' + day % 10);
+    }
+
+    /**
+     * {@code LocalDate.ofEpochDay(epochDay).plusMonths(months).toEpochDay()}: the day of month is clamped to the
+     * target month's length, and a year beyond the supported range throws like {@code LocalDate}.
+     */
+    public static long plusMonths(long epochDay, long months) {
+        long civil = civil(epochDay);
+        long year = civil >> 9;
+        int month = (int) (civil >>> 5) & 15;
+        int day = (int) civil & 31;
+        long monthCount = year * 12 + (month - 1) + months;
+        long newYear = Math.floorDiv(monthCount, 12);
+        if (newYear < MIN_YEAR || newYear > MAX_YEAR) {
+            return LocalDate.ofEpochDay(epochDay).plusMonths(months).toEpochDay();
+        }
+        int newMonth = (int) Math.floorMod(monthCount, 12) + 1;
+        return toEpochDay(newYear, newMonth, Math.min(day, lengthOfMonth(newYear, newMonth)));
+    }
+
+    static long toEpochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /** Year, month and day of {@code epochDay} packed as {@code year << 9 | month << 5 | day}. */
+    private static long civil(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970;
+        // Find the march-based year
+        zeroDay -= 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        return yearEst << 9 | (long) month << 5 | dom;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/** {@code employmentStartEpochDay} is {@link #INVALID_DATE} when the start date is not an ISO date. */
+public record AddPolicyProperties(String schemeId, String employmentStartDate, double salary, double partTimeFactor,
+                                  long employmentStartEpochDay) implements MutationProperties {
+
+    public static final long INVALID_DATE = PropertyValues.INVALID_DATE;
+
+    public static AddPolicyProperties of(String schemeId, String employmentStartDate, double salary,
+                                         double partTimeFactor) {
+        return new AddPolicyProperties(schemeId, employmentStartDate, salary, partTimeFactor,
+                PropertyValues.epochDay(employmentStartDate));
+    }
+
+    static AddPolicyProperties read(JsonParser p) throws IOException {
+        String schemeId = "", employmentStartDate = "";
+        double salary = 0, partTimeFactor = 0;
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "scheme_id" -> schemeId = PropertyValues.text(p);
+                    case "employment_start_date" -> employmentStartDate = PropertyValues.text(p);
+                    case "salary" -> salary = PropertyValues.number(p);
+                    case "part_time_factor" -> partTimeFactor = PropertyValues.number(p);
+                    default -> p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+        return of(schemeId, employmentStartDate, salary, partTimeFactor);
+    }
+}
@@ -0,0 +1,41 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * {@code schemeId} and {@code effectiveBefore} are {@code null} when the filter is absent;
+ * {@code effectiveBeforeEpochDay} is {@link #INVALID_DATE} when the filter is absent or not an ISO date.
+ */
+public record ApplyIndexationProperties(double percentage, String schemeId, String effectiveBefore,
+                                        long effectiveBeforeEpochDay) implements MutationProperties {
+
+    public static final long INVALID_DATE = PropertyValues.INVALID_DATE;
+
+    public static ApplyIndexationProperties of(double percentage, String schemeId, String effectiveBefore) {
+        return new ApplyIndexationProperties(percentage, schemeId, effectiveBefore,
+                PropertyValues.epochDay(effectiveBefore));
+    }
+
+    static ApplyIndexationProperties read(JsonParser p) throws IOException {
+        double percentage = 0;
+        String schemeId = null, effectiveBefore = null;
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "percentage" -> percentage = PropertyValues.number(p);
+                    case "scheme_id" -> schemeId = PropertyValues.optionalText(p);
+                    case "effective_before" -> effectiveBefore = PropertyValues.optionalText(p);
+                    default -> p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+        return of(percentage, schemeId, effectiveBefore);
+    }
+}
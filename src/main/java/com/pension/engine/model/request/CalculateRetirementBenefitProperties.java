@@ -0,0 +1,41 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import com.pension.engine.model.IsoDate;
+
+import java.io.IOException;
+
+public record CalculateRetirementBenefitProperties(String retirementDate, long retirementEpochDay)
+        implements MutationProperties {
+
+    public static CalculateRetirementBenefitProperties of(String retirementDate) {
+        return new CalculateRetirementBenefitProperties(retirementDate, PropertyValues.epochDay(retirementDate));
+    }
+
+    /** The retirement date's epoch day; throws the usual {@code DateTimeParseException} if it is not a date. */
+    public long retirementDay() {
+        return retirementEpochDay != PropertyValues.INVALID_DATE
+                ? retirementEpochDay
+                : IsoDate.epochDayOrThrow(retirementDate);
+    }
+
+    static CalculateRetirementBenefitProperties read(JsonParser p) throws IOException {
+        String retirementDate = "";
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                if (field.equals("retirement_date")) {
+                    retirementDate = PropertyValues.text(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+        return of(retirementDate);
+    }
+}
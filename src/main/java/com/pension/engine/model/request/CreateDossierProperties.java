@@ -0,0 +1,37 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/** {@code birthEpochDay} is {@link #INVALID_DATE} when {@code birthDate} is not an ISO date. */
+public record CreateDossierProperties(String dossierId, String personId, String name, String birthDate,
+                                      long birthEpochDay) implements MutationProperties {
+
+    public static final long INVALID_DATE = PropertyValues.INVALID_DATE;
+
+    public static CreateDossierProperties of(String dossierId, String personId, String name, String birthDate) {
+        return new CreateDossierProperties(dossierId, personId, name, birthDate, PropertyValues.epochDay(birthDate));
+    }
+
+    static CreateDossierProperties read(JsonParser p) throws IOException {
+        String dossierId = "", personId = "", name = "", birthDate = "";
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "dossier_id" -> dossierId = PropertyValues.text(p);
+                    case "person_id" -> personId = PropertyValues.text(p);
+                    case "name" -> name = PropertyValues.textOrEmpty(p);
+                    case "birth_date" -> birthDate = PropertyValues.textOrEmpty(p);
+                    default -> p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+        return of(dossierId, personId, name, birthDate);
+    }
+}
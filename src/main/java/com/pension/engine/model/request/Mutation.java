@@ -1,9 +1,15 @@
 package com.pension.engine.model.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@JsonDeserialize(using = MutationDeserializer.class)
 public class Mutation {
 
     @JsonProperty("mutation_id")
@@ -22,8 +28,20 @@ public class Mutation {
     @JsonProperty("dossier_id")
     private String dossierId;
 
+    // Raw properties as read, replayed verbatim when the mutation is echoed back
     @JsonProperty("mutation_properties")
-    private JsonNode mutationProperties;
+    private TokenBuffer mutationProperties;
+
+    @JsonIgnore
+    private MutationDefinition definition;
+
+    // Typed view of mutation_properties; bound when the mutation is read unless set directly
+    @JsonIgnore
+    private MutationProperties properties;
+
+    // Whether properties is current; it stays null once bound for an unknown definition
+    @JsonIgnore
+    private boolean propertiesBound;
 
     public String getMutationId() { return mutationId; }
     public void setMutationId(String mutationId) { this.mutationId = mutationId; }
@@ -31,8 +49,14 @@ public class Mutation {
     public String getMutationDefinitionName() { return mutationDefinitionName; }
     public void setMutationDefinitionName(String mutationDefinitionName) {
         this.mutationDefinitionName = mutationDefinitionName;
+        this.definition = MutationDefinition.fromName(mutationDefinitionName);
+        this.properties = null;
+        this.propertiesBound = false;
     }
 
+    /** The resolved definition, or {@code null} if the name is not one the engine knows. */
+    public MutationDefinition getDefinition() { return definition; }
+
     public String getMutationType() { return mutationType; }
     public void setMutationType(String mutationType) { this.mutationType = mutationType; }
 
@@ -42,6 +66,29 @@ public class Mutation {
     public String getDossierId() { return dossierId; }
     public void setDossierId(String dossierId) { this.dossierId = dossierId; }
 
-    public JsonNode getMutationProperties() { return mutationProperties; }
-    public void setMutationProperties(JsonNode mutationProperties) { this.mutationProperties = mutationProperties; }
+    public TokenBuffer getMutationProperties() { return mutationProperties; }
+    public void setMutationProperties(TokenBuffer mutationProperties) {
+        this.mutationProperties = mutationProperties;
+        this.properties = null;
+        this.propertiesBound = false;
+    }
+
+    public MutationProperties getProperties() {
+        if (!propertiesBound && mutationProperties != null) {
+            if (definition != null) {
+                try (var p = mutationProperties.asParser()) {
+                    p.nextToken();
+                    properties = MutationProperties.read(definition, p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            propertiesBound = true;
+        }
+        return properties;
+    }
+    public void setProperties(MutationProperties properties) {
+        this.properties = properties;
+        this.propertiesBound = true;
+    }
 }
@@ -0,0 +1,34 @@
+package com.pension.engine.model.request;
+
+/** The known {@code mutation_definition_name} values, resolved once when a mutation is read. */
+public enum MutationDefinition {
+
+    CREATE_DOSSIER("create_dossier"),
+    ADD_POLICY("add_policy"),
+    APPLY_INDEXATION("apply_indexation"),
+    CALCULATE_RETIREMENT_BENEFIT("calculate_retirement_benefit"),
+    PROJECT_FUTURE_BENEFITS("project_future_benefits");
+
+    private final String definitionName;
+
+    MutationDefinition(String definitionName) {
+        this.definitionName = definitionName;
+    }
+
+    public String definitionName() { return definitionName; }
+
+    /** The definition with this name, or {@code null} if it is not one the engine knows. */
+    public static MutationDefinition fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return switch (name) {
+            case "create_dossier" -> CREATE_DOSSIER;
+            case "add_policy" -> ADD_POLICY;
+            case "apply_indexation" -> APPLY_INDEXATION;
+            case "calculate_retirement_benefit" -> CALCULATE_RETIREMENT_BENEFIT;
+            case "project_future_benefits" -> PROJECT_FUTURE_BENEFITS;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a {@link Mutation} field by field: the definition name is resolved to its
+ * {@link MutationDefinition} and the properties are bound to their typed record right away, so the
+ * engine never walks a JSON tree. The properties' tokens are kept for echoing the mutation back.
+ */
+final class MutationDeserializer extends StdDeserializer<Mutation> {
+
+    MutationDeserializer() {
+        super(Mutation.class);
+    }
+
+    @Override
+    public Mutation deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (Mutation) ctxt.handleUnexpectedToken(Mutation.class, p);
+        }
+
+        Mutation mutation = new Mutation();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "mutation_id" -> mutation.setMutationId(text(p, ctxt));
+                case "mutation_definition_name" -> mutation.setMutationDefinitionName(text(p, ctxt));
+                case "mutation_type" -> mutation.setMutationType(text(p, ctxt));
+                case "actual_at" -> mutation.setActualAt(text(p, ctxt));
+                case "dossier_id" -> mutation.setDossierId(text(p, ctxt));
+                case "mutation_properties" -> mutation.setMutationProperties(ctxt.bufferAsCopyOfValue(p));
+                default -> p.skipChildren();
+            }
+        }
+        mutation.getProperties();
+        return mutation;
+    }
+
+    private static String text(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, String.class);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Typed {@code mutation_properties}, one immutable record per mutation definition. Handlers read these
+ * instead of walking the JSON tree; dates are parsed once when the record is built. The binary (gRPC)
+ * path builds them directly from its typed messages.
+ */
+public sealed interface MutationProperties
+        permits CreateDossierProperties, AddPolicyProperties, ApplyIndexationProperties,
+        CalculateRetirementBenefitProperties, ProjectFutureBenefitsProperties {
+
+    /**
+     * Binds the properties value at the parser's current token with the same coercions the handlers
+     * applied to the tree ({@code path(..).asText()} and friends). Anything but an object binds as if
+     * every property were missing. Returns {@code null} for unknown definitions.
+     */
+    static MutationProperties read(MutationDefinition definition, JsonParser p) throws IOException {
+        if (definition == null) {
+            return null;
+        }
+        return switch (definition) {
+            case CREATE_DOSSIER -> CreateDossierProperties.read(p);
+            case ADD_POLICY -> AddPolicyProperties.read(p);
+            case APPLY_INDEXATION -> ApplyIndexationProperties.read(p);
+            case CALCULATE_RETIREMENT_BENEFIT -> CalculateRetirementBenefitProperties.read(p);
+            case PROJECT_FUTURE_BENEFITS -> ProjectFutureBenefitsProperties.read(p);
+        };
+    }
+}
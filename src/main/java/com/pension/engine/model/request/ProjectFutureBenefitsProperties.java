@@ -0,0 +1,50 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import com.pension.engine.model.IsoDate;
+
+import java.io.IOException;
+
+/** {@code projectionStartDay} and {@code projectionEndDay} are {@link IsoDate#INVALID} when the date does not parse. */
+public record ProjectFutureBenefitsProperties(String projectionStartDate, String projectionEndDate,
+                                              int projectionIntervalMonths, long projectionStartDay,
+                                              long projectionEndDay) implements MutationProperties {
+
+    public static ProjectFutureBenefitsProperties of(String projectionStartDate, String projectionEndDate,
+                                                     int projectionIntervalMonths) {
+        return new ProjectFutureBenefitsProperties(projectionStartDate, projectionEndDate, projectionIntervalMonths,
+                PropertyValues.epochDay(projectionStartDate), PropertyValues.epochDay(projectionEndDate));
+    }
+
+    /** The start date's epoch day; throws the usual {@code DateTimeParseException} if it is not a date. */
+    public long startDay() {
+        return projectionStartDay != IsoDate.INVALID ? projectionStartDay : IsoDate.epochDayOrThrow(projectionStartDate);
+    }
+
+    /** The end date's epoch day; throws the usual {@code DateTimeParseException} if it is not a date. */
+    public long endDay() {
+        return projectionEndDay != IsoDate.INVALID ? projectionEndDay : IsoDate.epochDayOrThrow(projectionEndDate);
+    }
+
+    static ProjectFutureBenefitsProperties read(JsonParser p) throws IOException {
+        String start = "", end = "";
+        int intervalMonths = 0;
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "projection_start_date" -> start = PropertyValues.text(p);
+                    case "projection_end_date" -> end = PropertyValues.text(p);
+                    case "projection_interval_months" -> intervalMonths = PropertyValues.integer(p);
+                    default -> p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+        return of(start, end, intervalMonths);
+    }
+}
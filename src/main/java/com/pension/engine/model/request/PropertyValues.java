@@ -0,0 +1,75 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+
+import com.pension.engine.model.IsoDate;
+
+import java.io.IOException;
+
+/**
+ * Reads one {@code mutation_properties} value at the parser's current token, coercing it exactly like
+ * the {@code JsonNode} accessors the handlers used before properties were typed: {@link #text} is
+ * {@code asText()}, {@link #number} is {@code asDouble()} and {@link #integer} is {@code asInt()}.
+ * Objects and arrays are skipped and read as the accessor's default.
+ */
+final class PropertyValues {
+
+    /** Epoch day of a date string that does not parse. */
+    static final long INVALID_DATE = IsoDate.INVALID;
+
+    private PropertyValues() {}
+
+    static String text(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_NUMBER_INT -> p.getNumberValue().toString();
+            case VALUE_NUMBER_FLOAT -> Double.toString(p.getDoubleValue());
+            case VALUE_TRUE -> "true";
+            case VALUE_FALSE -> "false";
+            case VALUE_NULL -> "null";
+            default -> skip(p, "");
+        };
+    }
+
+    /** {@code asText("")}: like {@link #text} except that JSON null reads as the empty string. */
+    static String textOrEmpty(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? "" : text(p);
+    }
+
+    /** {@code get(name)} null-checked, then {@code asText()}: JSON null reads as {@code null}. */
+    static String optionalText(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : text(p);
+    }
+
+    static double number(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getDoubleValue();
+            case VALUE_STRING -> NumberInput.parseAsDouble(p.getText(), 0.0, false);
+            case VALUE_TRUE -> 1.0;
+            case VALUE_FALSE, VALUE_NULL -> 0.0;
+            default -> skip(p, 0.0);
+        };
+    }
+
+    static int integer(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getNumberValue().intValue();
+            case VALUE_STRING -> NumberInput.parseAsInt(p.getText(), 0);
+            case VALUE_TRUE -> 1;
+            case VALUE_FALSE, VALUE_NULL -> 0;
+            default -> skip(p, 0);
+        };
+    }
+
+    /** Epoch day of an ISO date, or {@link #INVALID_DATE} if {@code LocalDate.parse} would reject it. */
+    static long epochDay(String date) {
+        return IsoDate.epochDay(date);
+    }
+
+    private static <T> T skip(JsonParser p, T value) throws IOException {
+        p.skipChildren();
+        return value;
+    }
+}
@@ -2,8 +2,8 @@ package com.pension.engine.model.response;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.pension.engine.model.request.Mutation;
+import com.pension.engine.patch.Patch;
 
 import java.util.List;
 
@@ -17,10 +17,10 @@ public class ProcessedMutation {
     private List<Integer> calculationMessageIndexes;
 
     @JsonProperty("forward_patch_to_situation_after_this_mutation")
-    private JsonNode forwardPatch;
+    private Patch forwardPatch;
 
     @JsonProperty("backward_patch_to_previous_situation")
-    private JsonNode backwardPatch;
+    private Patch backwardPatch;
 
     public Mutation getMutation() { return mutation; }
     public void setMutation(Mutation mutation) { this.mutation = mutation; }
@@ -30,9 +30,9 @@ public class ProcessedMutation {
         this.calculationMessageIndexes = calculationMessageIndexes;
     }
 
-    public JsonNode getForwardPatch() { return forwardPatch; }
-    public void setForwardPatch(JsonNode forwardPatch) { this.forwardPatch = forwardPatch; }
+    public Patch getForwardPatch() { return forwardPatch; }
+    public void setForwardPatch(Patch forwardPatch) { this.forwardPatch = forwardPatch; }
 
-    public JsonNode getBackwardPatch() { return backwardPatch; }
-    public void setBackwardPatch(JsonNode backwardPatch) { this.backwardPatch = backwardPatch; }
+    public Patch getBackwardPatch() { return backwardPatch; }
+    public void setBackwardPatch(Patch backwardPatch) { this.backwardPatch = backwardPatch; }
 }
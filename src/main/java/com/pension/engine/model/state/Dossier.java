@@ -3,6 +3,7 @@ package com.pension.engine.model.state;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,14 +24,20 @@ public class Dossier {
     private List<Person> persons;
 
     @JsonProperty("policies")
-    private List<Policy> policies;
+    @JsonSerialize(using = PolicyTableSerializer.class)
+    private final PolicyTable policies = new PolicyTable();
 
     @JsonIgnore
     private int policySequence = 0;
 
+    @JsonIgnore
+    private final PolicyIndex policyIndex = new PolicyIndex();
+
+    @JsonIgnore
+    private final IndexationLedger indexationLedger = new IndexationLedger();
+
     public Dossier() {
         this.persons = new ArrayList<>(1);
-        this.policies = new ArrayList<>(4);
     }
 
     public String getDossierId() { return dossierId; }
@@ -45,8 +52,71 @@ public class Dossier {
     public List<Person> getPersons() { return persons; }
     public void setPersons(List<Person> persons) { this.persons = persons; }
 
-    public List<Policy> getPolicies() { return policies; }
-    public void setPolicies(List<Policy> policies) { this.policies = policies; }
+    /** Policies in insertion order. Append through {@link #addPolicy} so the index stays in sync. */
+    public PolicyTable getPolicies() { return policies; }
+
+    /**
+     * Appends a policy without attainable pension or projections and indexes it.
+     *
+     * @param startDay the parsed employment start epoch day, {@link PolicyTable#INVALID_DAY} if not a date
+     * @return {@code false} if a policy with the same scheme_id and employment_start_date already existed
+     */
+    public boolean addPolicy(String policyId, String schemeId, String employmentStartDate, long startDay,
+                             double salary, double partTimeFactor) {
+        // Indexations recorded before this policy existed never apply to it
+        policies.append(policyId, schemeId, employmentStartDate, startDay, salary, partTimeFactor,
+                indexationLedger.size());
+        return policyIndex.add(policies);
+    }
+
+    public PolicyIndex getPolicyIndex() { return policyIndex; }
+
+    /**
+     * Records a non-negative indexation factor against its filters without touching any salary.
+     * Matching policies pick it up the next time they are settled.
+     */
+    public void deferIndexation(double factor, String schemeId, String effectiveBefore) {
+        deferIndexation(factor, schemeId, effectiveBefore, PolicyIndex.parseDay(effectiveBefore));
+    }
+
+    /** {@link #deferIndexation(double, String, String)} with {@code effectiveBefore} already parsed. */
+    public void deferIndexation(double factor, String schemeId, String effectiveBefore, long beforeEpochDay) {
+        int schemeOrdinal = schemeId == null ? IndexationLedger.ANY_SCHEME : policyIndex.schemeOrdinal(schemeId);
+        if (schemeOrdinal == PolicyIndex.UNKNOWN_SCHEME) {
+            return; // matches no current policy, and later policies start past this entry
+        }
+        long beforeDay = effectiveBefore == null ? PolicyIndex.UNDATED : PolicyIndex.indexDay(beforeEpochDay);
+        indexationLedger.record(factor, schemeOrdinal, beforeDay, effectiveBefore);
+    }
+
+    /** Folds pending ledger entries into the salary of the policy at {@code position} and returns it. */
+    public double settleSalary(int position) {
+        int from = policies.settledIndexations(position);
+        int to = indexationLedger.size();
+        double salary = policies.salary(position);
+        if (from == to) {
+            return salary;
+        }
+        for (int e = from; e < to; e++) {
+            if (policyIndex.matches(position, indexationLedger.schemeOrdinal(e), indexationLedger.beforeDay(e),
+                    indexationLedger.effectiveBefore(e), policies)) {
+                salary = salary * indexationLedger.factor(e);
+            }
+        }
+        policies.setSalary(position, salary);
+        policies.setSettledIndexations(position, to);
+        return salary;
+    }
+
+    /** Settles every policy, so {@link PolicyTable#salary} is the effective salary for all of them. */
+    public void settleSalaries() {
+        if (indexationLedger.size() == 0) {
+            return;
+        }
+        for (int i = 0; i < policies.size(); i++) {
+            settleSalary(i);
+        }
+    }
 
     public int nextPolicySequence() { return ++policySequence; }
     public int getPolicySequence() { return policySequence; }
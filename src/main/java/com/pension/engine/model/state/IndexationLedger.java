@@ -0,0 +1,48 @@
+package com.pension.engine.model.state;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of deferred apply_indexation factors and the filters they were recorded with.
+ *
+ * <p>Policies remember how far into the ledger their stored salary is settled; {@link Dossier#settleSalary}
+ * replays the remaining entries in order, so the result is bit-identical to multiplying eagerly.
+ * Only non-negative factors are deferred: they can never clamp, so no per-policy warning depends on them.
+ */
+public final class IndexationLedger {
+
+    /** Scheme filter value meaning "every scheme". */
+    public static final int ANY_SCHEME = -1;
+
+    private double[] factors = new double[4];
+    private int[] schemeOrdinals = new int[4];
+    private long[] beforeDays = new long[4];
+    private String[] effectiveBefore = new String[4];
+    private int size;
+
+    void record(double factor, int schemeOrdinal, long beforeDay, String effectiveBefore) {
+        if (size == factors.length) {
+            int capacity = size << 1;
+            factors = Arrays.copyOf(factors, capacity);
+            schemeOrdinals = Arrays.copyOf(schemeOrdinals, capacity);
+            beforeDays = Arrays.copyOf(beforeDays, capacity);
+            this.effectiveBefore = Arrays.copyOf(this.effectiveBefore, capacity);
+        }
+        factors[size] = factor;
+        schemeOrdinals[size] = schemeOrdinal;
+        beforeDays[size] = beforeDay;
+        this.effectiveBefore[size] = effectiveBefore;
+        size++;
+    }
+
+    public int size() { return size; }
+
+    public double factor(int entry) { return factors[entry]; }
+
+    public int schemeOrdinal(int entry) { return schemeOrdinals[entry]; }
+
+    long beforeDay(int entry) { return beforeDays[entry]; }
+
+    /** The entry's effective_before filter, or {@code null} if it has none. */
+    public String effectiveBefore(int entry) { return effectiveBefore[entry]; }
+}
@@ -0,0 +1,87 @@
+package com.pension.engine.model.state;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative {@code long} keys with linear probing.
+ * Avoids the {@code Long} boxing and node allocation of {@code HashSet<Long>} on the add_policy path.
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] slots;
+    private int size;
+    private int resizeAt;
+
+    LongHashSet() {
+        allocate(16);
+    }
+
+    /** @return {@code true} if {@code key} was not yet present */
+    boolean add(long key) {
+        long[] s = slots;
+        int mask = s.length - 1;
+        int i = mix(key) & mask;
+        long current;
+        while ((current = s[i]) != EMPTY) {
+            if (current == key) return false;
+            i = (i + 1) & mask;
+        }
+        s[i] = key;
+        if (++size >= resizeAt) {
+            rehash(s.length << 1);
+        }
+        return true;
+    }
+
+    boolean contains(long key) {
+        long[] s = slots;
+        int mask = s.length - 1;
+        int i = mix(key) & mask;
+        long current;
+        while ((current = s[i]) != EMPTY) {
+            if (current == key) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    int size() { return size; }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        allocate(capacity);
+        long[] s = slots;
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key == EMPTY) continue;
+            int i = mix(key) & mask;
+            while (s[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            s[i] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        resizeAt = capacity - (capacity >>> 2); // 0.75 load factor
+    }
+
+    // MurmurHash3 fmix64 finalizer: spreads the (ordinal, day) bits over the low slot bits
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -2,8 +2,7 @@ package com.pension.engine.model.state;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-
-import java.time.LocalDate;
+import com.pension.engine.model.IsoDate;
 
 public class Person {
 
@@ -31,6 +30,11 @@ public class Person {
         this.birthDate = birthDate;
     }
 
+    public Person(String personId, String role, String name, String birthDate, long birthDateEpochDay) {
+        this(personId, role, name, birthDate);
+        this.birthDateEpochDay = birthDateEpochDay;
+    }
+
     public String getPersonId() { return personId; }
     public void setPersonId(String personId) { this.personId = personId; }
 
@@ -49,7 +53,7 @@ public class Person {
     public long getBirthDateEpochDay() {
         long d = birthDateEpochDay;
         if (d == Long.MIN_VALUE) {
-            d = LocalDate.parse(birthDate).toEpochDay();
+            d = IsoDate.epochDayOrThrow(birthDate);
             birthDateEpochDay = d;
         }
         return d;
@@ -1,71 +1,31 @@
 package com.pension.engine.model.state;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonProperty;
-
-import java.time.LocalDate;
 import java.util.List;
 
-@JsonInclude(JsonInclude.Include.ALWAYS)
-public class Policy {
-
-    @JsonProperty("policy_id")
-    private String policyId;
-
-    @JsonProperty("scheme_id")
-    private String schemeId;
-
-    @JsonProperty("employment_start_date")
-    private String employmentStartDate;
-
-    @JsonProperty("salary")
-    private double salary;
-
-    @JsonProperty("part_time_factor")
-    private double partTimeFactor;
+/** One row of a dossier's {@link PolicyTable}; reads go straight to the table's columns. */
+public final class Policy {
 
-    @JsonProperty("attainable_pension")
-    private Double attainablePension;
+    private final PolicyTable table;
+    private final int position;
 
-    @JsonProperty("projections")
-    private List<Projection> projections;
-
-    @JsonIgnore
-    private transient long employmentStartEpochDay = Long.MIN_VALUE;
+    Policy(PolicyTable table, int position) {
+        this.table = table;
+        this.position = position;
+    }
 
-    public Policy() {}
+    public String getPolicyId() { return table.policyId(position); }
 
-    public String getPolicyId() { return policyId; }
-    public void setPolicyId(String policyId) { this.policyId = policyId; }
+    public String getSchemeId() { return table.schemeId(position); }
 
-    public String getSchemeId() { return schemeId; }
-    public void setSchemeId(String schemeId) { this.schemeId = schemeId; }
+    public String getEmploymentStartDate() { return table.employmentStartDate(position); }
 
-    public String getEmploymentStartDate() { return employmentStartDate; }
-    public void setEmploymentStartDate(String employmentStartDate) {
-        this.employmentStartDate = employmentStartDate;
-        this.employmentStartEpochDay = Long.MIN_VALUE; // invalidate cache
-    }
+    public double getSalary() { return table.salary(position); }
 
-    public double getSalary() { return salary; }
-    public void setSalary(double salary) { this.salary = salary; }
+    public double getPartTimeFactor() { return table.partTimeFactor(position); }
 
-    public double getPartTimeFactor() { return partTimeFactor; }
-    public void setPartTimeFactor(double partTimeFactor) { this.partTimeFactor = partTimeFactor; }
+    public Double getAttainablePension() { return table.attainablePensionOrNull(position); }
 
-    public Double getAttainablePension() { return attainablePension; }
-    public void setAttainablePension(Double attainablePension) { this.attainablePension = attainablePension; }
+    public List<Projection> getProjections() { return table.projections(position); }
 
-    public List<Projection> getProjections() { return projections; }
-    public void setProjections(List<Projection> projections) { this.projections = projections; }
-
-    public long getEmploymentStartEpochDay() {
-        long d = employmentStartEpochDay;
-        if (d == Long.MIN_VALUE) {
-            d = LocalDate.parse(employmentStartDate).toEpochDay();
-            employmentStartEpochDay = d;
-        }
-        return d;
-    }
+    public long getEmploymentStartEpochDay() { return table.employmentStartDay(position); }
 }
@@ -0,0 +1,287 @@
+package com.pension.engine.model.state;
+
+import com.pension.engine.model.IsoDate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Secondary indexes over a dossier's policy list, keyed by policy position.
+ *
+ * <p>Keeps a scheme_id → positions bucket map and the positions ordered by employment start epoch day,
+ * so the apply_indexation filters resolve with a hash lookup and a binary-search range instead of a
+ * scan, plus a set of (scheme ordinal, start day) keys for O(1) duplicate detection in add_policy. The earliest
+ * start day overall and per scheme answer "does any policy match" without building the match list.
+ * Policies whose employment_start_date is not a valid ISO date with a four-digit year cannot be placed on
+ * the day axis; they are kept aside and compared as strings, exactly like the unindexed code did.
+ */
+public final class PolicyIndex {
+
+    private static final int[] NONE = new int[0];
+    static final long UNDATED = Long.MIN_VALUE;
+    private static final long FIRST_INDEX_DAY = IsoDate.epochDay("0000-01-01");
+    private static final long LAST_INDEX_DAY = IsoDate.epochDay("9999-12-31");
+
+    /** Ordinal returned for a scheme_id no indexed policy carries. */
+    public static final int UNKNOWN_SCHEME = -2;
+
+    private final HashMap<String, Bucket> byScheme = new HashMap<>(8);
+    private final LongHashSet schemeDayKeys = new LongHashSet();
+
+    // (day << 32) + position for dated policies: ordered by day, ties by insertion.
+    // Appends land unsorted after sortedSize and are merged in on the next range query.
+    private long[] dayKeys = new long[8];
+    private int sortedSize;
+    private int dayKeyCount;
+
+    private final Bucket undated = new Bucket(-1);
+    private long minDay = Long.MAX_VALUE;
+    private int size;
+
+    /**
+     * Indexes the policy at position {@link #size()} of {@code policies} and assigns its scheme ordinal.
+     *
+     * @return {@code false} if a policy with the same scheme_id and employment_start_date was already indexed
+     */
+    public boolean add(PolicyTable policies) {
+        int position = size++;
+        String schemeId = policies.schemeId(position);
+        Bucket bucket = byScheme.get(schemeId);
+        if (bucket == null) {
+            bucket = new Bucket(byScheme.size());
+            byScheme.put(schemeId, bucket);
+        }
+        policies.setSchemeOrdinal(position, bucket.ordinal);
+
+        String startDate = policies.employmentStartDate(position);
+        long day = indexDay(policies.startDay(position));
+        boolean unique;
+        if (day == UNDATED) {
+            unique = !containsUndated(schemeId, startDate, policies);
+            undated.add(position);
+            bucket.undatedCount++;
+        } else {
+            minDay = Math.min(minDay, day);
+            bucket.minDay = Math.min(bucket.minDay, day);
+            unique = schemeDayKeys.add(((long) bucket.ordinal << 32) | (day & 0xFFFFFFFFL));
+            if (dayKeyCount == dayKeys.length) {
+                dayKeys = Arrays.copyOf(dayKeys, dayKeyCount << 1);
+            }
+            dayKeys[dayKeyCount++] = (day << 32) + position;
+        }
+        bucket.add(position);
+        return unique;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Positions of the policies matching the apply_indexation filters, in ascending order.
+     * A {@code null} filter does not restrict; at least one filter must be non-null.
+     */
+    public int[] match(String schemeId, String effectiveBefore, PolicyTable policies) {
+        return match(schemeId, effectiveBefore, parseDay(effectiveBefore), policies);
+    }
+
+    /**
+     * {@link #match(String, String, PolicyTable)} with {@code effectiveBefore} already parsed to
+     * {@code beforeEpochDay} ({@code Long.MIN_VALUE} if it is not a date).
+     */
+    public int[] match(String schemeId, String effectiveBefore, long beforeEpochDay, PolicyTable policies) {
+        if (effectiveBefore == null) {
+            Bucket bucket = byScheme.get(schemeId);
+            return bucket == null ? NONE : Arrays.copyOf(bucket.positions, bucket.size);
+        }
+
+        long beforeDay = indexDay(beforeEpochDay);
+        if (beforeDay == UNDATED) {
+            // Not a date: only the plain string comparison is meaningful
+            return scan(schemeId, effectiveBefore, policies);
+        }
+
+        if (schemeId != null) {
+            Bucket bucket = byScheme.get(schemeId);
+            if (bucket == null) return NONE;
+            int[] result = new int[bucket.size];
+            int count = 0;
+            for (int i = 0; i < bucket.size; i++) {
+                int position = bucket.positions[i];
+                if (startsBefore(position, beforeDay, effectiveBefore, policies)) {
+                    result[count++] = position;
+                }
+            }
+            return count == result.length ? result : Arrays.copyOf(result, count);
+        }
+
+        mergePending();
+        int end = lowerBound(beforeDay << 32);
+        int[] result = new int[end + undated.size];
+        for (int i = 0; i < end; i++) {
+            result[i] = (int) dayKeys[i];
+        }
+        int count = end;
+        for (int i = 0; i < undated.size; i++) {
+            int position = undated.positions[i];
+            if (policies.employmentStartDate(position).compareTo(effectiveBefore) < 0) {
+                result[count++] = position;
+            }
+        }
+        if (count != result.length) result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Whether {@link #match(String, String, long, PolicyTable)} would return any position, stopping at the first
+     * hit. Constant time unless policies with undated start dates have to be compared as strings.
+     */
+    public boolean anyMatch(String schemeId, String effectiveBefore, long beforeEpochDay, PolicyTable policies) {
+        Bucket bucket = null;
+        if (schemeId != null) {
+            bucket = byScheme.get(schemeId);
+            if (bucket == null) return false;
+        }
+        if (effectiveBefore == null) {
+            return bucket != null;
+        }
+
+        long beforeDay = indexDay(beforeEpochDay);
+        if (beforeDay == UNDATED) {
+            // Not a date: only the plain string comparison is meaningful
+            if (bucket == null) {
+                for (int i = 0; i < size; i++) {
+                    if (policies.employmentStartDate(i).compareTo(effectiveBefore) < 0) return true;
+                }
+                return false;
+            }
+            return anyStartsBefore(bucket, effectiveBefore, false, policies);
+        }
+
+        if (bucket == null) {
+            return minDay < beforeDay || anyStartsBefore(undated, effectiveBefore, false, policies);
+        }
+        return bucket.minDay < beforeDay
+                || bucket.undatedCount > 0 && anyStartsBefore(bucket, effectiveBefore, true, policies);
+    }
+
+    /** Whether a policy of {@code bucket} (only its undated ones, if asked) starts before the date as a string. */
+    private static boolean anyStartsBefore(Bucket bucket, String effectiveBefore, boolean undatedOnly,
+                                           PolicyTable policies) {
+        for (int i = 0; i < bucket.size; i++) {
+            int position = bucket.positions[i];
+            if (undatedOnly && indexDay(policies.startDay(position)) != UNDATED) continue;
+            if (policies.employmentStartDate(position).compareTo(effectiveBefore) < 0) return true;
+        }
+        return false;
+    }
+
+    /** Ordinal of {@code schemeId}, or {@link #UNKNOWN_SCHEME} if no indexed policy carries it. */
+    public int schemeOrdinal(String schemeId) {
+        Bucket bucket = byScheme.get(schemeId);
+        return bucket == null ? UNKNOWN_SCHEME : bucket.ordinal;
+    }
+
+    /**
+     * Whether the policy at {@code position} passes a scheme filter ({@link IndexationLedger#ANY_SCHEME}
+     * for none) and an effective_before filter ({@code null} for none, {@code beforeDay} pre-parsed).
+     */
+    boolean matches(int position, int schemeOrdinal, long beforeDay, String effectiveBefore, PolicyTable policies) {
+        if (schemeOrdinal != IndexationLedger.ANY_SCHEME && policies.schemeOrdinal(position) != schemeOrdinal) {
+            return false;
+        }
+        if (effectiveBefore == null) return true;
+        if (beforeDay == UNDATED) {
+            return policies.employmentStartDate(position).compareTo(effectiveBefore) < 0;
+        }
+        return startsBefore(position, beforeDay, effectiveBefore, policies);
+    }
+
+    private boolean startsBefore(int position, long beforeDay, String effectiveBefore, PolicyTable policies) {
+        long day = indexDay(policies.startDay(position));
+        if (day != UNDATED) return day < beforeDay;
+        return policies.employmentStartDate(position).compareTo(effectiveBefore) < 0;
+    }
+
+    private boolean containsUndated(String schemeId, String startDate, PolicyTable policies) {
+        for (int i = 0; i < undated.size; i++) {
+            int position = undated.positions[i];
+            if (policies.schemeId(position).equals(schemeId)
+                    && policies.employmentStartDate(position).equals(startDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] scan(String schemeId, String effectiveBefore, PolicyTable policies) {
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (schemeId != null && !policies.schemeId(i).equals(schemeId)) continue;
+            if (policies.employmentStartDate(i).compareTo(effectiveBefore) >= 0) continue;
+            result[count++] = i;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Sorts the keys appended since the last query and merges them into the sorted prefix. */
+    private void mergePending() {
+        int pending = dayKeyCount - sortedSize;
+        if (pending == 0) return;
+        Arrays.sort(dayKeys, sortedSize, dayKeyCount);
+        if (sortedSize > 0 && dayKeys[sortedSize - 1] > dayKeys[sortedSize]) {
+            long[] merged = new long[dayKeys.length];
+            int a = 0, b = sortedSize, out = 0;
+            while (a < sortedSize && b < dayKeyCount) {
+                merged[out++] = dayKeys[a] <= dayKeys[b] ? dayKeys[a++] : dayKeys[b++];
+            }
+            while (a < sortedSize) merged[out++] = dayKeys[a++];
+            while (b < dayKeyCount) merged[out++] = dayKeys[b++];
+            dayKeys = merged;
+        }
+        sortedSize = dayKeyCount;
+    }
+
+    /** First sorted slot whose key is >= {@code key}. */
+    private int lowerBound(long key) {
+        int lo = 0, hi = sortedSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dayKeys[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    static long parseDay(String date) {
+        long epochDay = IsoDate.epochDay(date);
+        return epochDay == IsoDate.INVALID ? UNDATED : indexDay(epochDay);
+    }
+
+    /**
+     * Only years 0000-9999 have the ten-character form whose string order is the day order; signed and
+     * five-digit years, such as {@code +12023-01-01}, fall back to string comparison like undated policies.
+     */
+    static long indexDay(long epochDay) {
+        return epochDay >= FIRST_INDEX_DAY && epochDay <= LAST_INDEX_DAY ? epochDay : UNDATED;
+    }
+
+    private static final class Bucket {
+        final int ordinal;
+        int[] positions = new int[4];
+        int size;
+        // Earliest dated start and the number of undated positions; unused for the undated bucket itself
+        long minDay = Long.MAX_VALUE;
+        int undatedCount;
+
+        Bucket(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+            }
+            positions[size++] = position;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.pension.engine.model.state;
+
+import com.pension.engine.model.IsoDate;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A dossier's policies stored column by column: primitive arrays for the start day, salary, part-time
+ * factor and attainable pension (with a null bitmap), plus the scheme ordinal assigned by the
+ * {@link PolicyIndex}. Handlers loop over the columns by position; the {@link List} view hands out
+ * {@link Policy} rows for code that wants objects, and the JSON shape is unchanged.
+ */
+public final class PolicyTable extends AbstractList<Policy> implements RandomAccess {
+
+    /** Start day of an employment_start_date that is not an ISO date. */
+    public static final long INVALID_DAY = IsoDate.INVALID;
+
+    private String[] policyIds = new String[4];
+    private String[] schemeIds = new String[4];
+    private String[] startDates = new String[4];
+    private long[] startDays = new long[4];
+    private int[] schemeOrdinals = new int[4];
+    private double[] salaries = new double[4];
+    private double[] partTimeFactors = new double[4];
+    private double[] attainablePensions = new double[4];
+    private long[] attainableSet = new long[1];
+    private List<Projection>[] projections = newProjectionColumn(4);
+    private int[] settledIndexations = new int[4];
+    private int size;
+
+    /** Appends a policy without attainable pension or projections and returns its position. */
+    int append(String policyId, String schemeId, String startDate, long startDay, double salary,
+               double partTimeFactor, int settled) {
+        if (size == policyIds.length) {
+            grow(size << 1);
+        }
+        int position = size++;
+        policyIds[position] = policyId;
+        schemeIds[position] = schemeId;
+        startDates[position] = startDate;
+        startDays[position] = startDay;
+        salaries[position] = salary;
+        partTimeFactors[position] = partTimeFactor;
+        settledIndexations[position] = settled;
+        return position;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public Policy get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return new Policy(this, position);
+    }
+
+    public String policyId(int position) { return policyIds[position]; }
+
+    public String schemeId(int position) { return schemeIds[position]; }
+
+    int schemeOrdinal(int position) { return schemeOrdinals[position]; }
+
+    void setSchemeOrdinal(int position, int ordinal) { schemeOrdinals[position] = ordinal; }
+
+    public String employmentStartDate(int position) { return startDates[position]; }
+
+    /** Parsed start day, or {@link #INVALID_DAY} if the start date is not an ISO date. */
+    long startDay(int position) { return startDays[position]; }
+
+    /** Start epoch day; a start date that is not an ISO date throws {@code DateTimeParseException}. */
+    public long employmentStartDay(int position) {
+        long day = startDays[position];
+        return day != INVALID_DAY ? day : IsoDate.epochDayOrThrow(startDates[position]);
+    }
+
+    /** Stored salary; see {@link Dossier#settleSalary} for the effective one. */
+    public double salary(int position) { return salaries[position]; }
+
+    public void setSalary(int position, double salary) { salaries[position] = salary; }
+
+    public double partTimeFactor(int position) { return partTimeFactors[position]; }
+
+    public boolean hasAttainablePension(int position) {
+        return (attainableSet[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /** The attainable pension; only meaningful if {@link #hasAttainablePension}. */
+    public double attainablePension(int position) { return attainablePensions[position]; }
+
+    /** The attainable pension, or {@code null} if none was calculated. */
+    public Double attainablePensionOrNull(int position) {
+        return hasAttainablePension(position) ? attainablePensions[position] : null;
+    }
+
+    public void setAttainablePension(int position, double pension) {
+        attainablePensions[position] = pension;
+        attainableSet[position >>> 6] |= 1L << position;
+    }
+
+    public List<Projection> projections(int position) { return projections[position]; }
+
+    public void setProjections(int position, List<Projection> projections) {
+        this.projections[position] = projections;
+    }
+
+    int settledIndexations(int position) { return settledIndexations[position]; }
+
+    void setSettledIndexations(int position, int settled) { settledIndexations[position] = settled; }
+
+    private void grow(int capacity) {
+        policyIds = Arrays.copyOf(policyIds, capacity);
+        schemeIds = Arrays.copyOf(schemeIds, capacity);
+        startDates = Arrays.copyOf(startDates, capacity);
+        startDays = Arrays.copyOf(startDays, capacity);
+        schemeOrdinals = Arrays.copyOf(schemeOrdinals, capacity);
+        salaries = Arrays.copyOf(salaries, capacity);
+        partTimeFactors = Arrays.copyOf(partTimeFactors, capacity);
+        attainablePensions = Arrays.copyOf(attainablePensions, capacity);
+        attainableSet = Arrays.copyOf(attainableSet, (capacity + 63) >>> 6);
+        projections = Arrays.copyOf(projections, capacity);
+        settledIndexations = Arrays.copyOf(settledIndexations, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Projection>[] newProjectionColumn(int capacity) {
+        return (List<Projection>[]) new List<?>[capacity];
+    }
+}
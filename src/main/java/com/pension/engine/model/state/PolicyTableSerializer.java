@@ -0,0 +1,62 @@
+package com.pension.engine.model.state;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Writes a {@link PolicyTable} as the array of policy objects the API has always returned. */
+final class PolicyTableSerializer extends StdSerializer<PolicyTable> {
+
+    PolicyTableSerializer() {
+        super(PolicyTable.class);
+    }
+
+    @Override
+    public void serialize(PolicyTable table, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int size = table.size();
+        gen.writeStartArray(table, size);
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            gen.writeStringField("policy_id", table.policyId(i));
+            gen.writeStringField("scheme_id", table.schemeId(i));
+            gen.writeStringField("employment_start_date", table.employmentStartDate(i));
+            gen.writeNumberField("salary", table.salary(i));
+            gen.writeNumberField("part_time_factor", table.partTimeFactor(i));
+            if (table.hasAttainablePension(i)) {
+                gen.writeNumberField("attainable_pension", table.attainablePension(i));
+            } else {
+                gen.writeNullField("attainable_pension");
+            }
+            List<Projection> projections = table.projections(i);
+            gen.writeFieldName("projections");
+            if (projections == null) {
+                gen.writeNull();
+            } else {
+                writeProjections(projections, gen);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeProjections(List<Projection> projections, JsonGenerator gen) throws IOException {
+        int size = projections.size();
+        gen.writeStartArray(projections, size);
+        for (int i = 0; i < size; i++) {
+            Projection projection = projections.get(i);
+            gen.writeStartObject();
+            gen.writeFieldName("date");
+            if (projection.getDateLabel() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeString(projection.getDateLabel());
+            }
+            gen.writeNumberField("projected_pension", projection.getProjectedPension());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
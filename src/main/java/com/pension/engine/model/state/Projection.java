@@ -1,11 +1,15 @@
 package com.pension.engine.model.state;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 
 public class Projection {
 
-    @JsonProperty("date")
-    private String date;
+    // Shared with every other projection on the same date; the serializers write its cached UTF-8 bytes
+    @JsonIgnore
+    private SerializableString date;
 
     @JsonProperty("projected_pension")
     private double projectedPension;
@@ -13,12 +17,23 @@ public class Projection {
     public Projection() {}
 
     public Projection(String date, double projectedPension) {
+        this(date != null ? new SerializedString(date) : null, projectedPension);
+    }
+
+    public Projection(SerializableString date, double projectedPension) {
         this.date = date;
         this.projectedPension = projectedPension;
     }
 
-    public String getDate() { return date; }
-    public void setDate(String date) { this.date = date; }
+    @JsonProperty("date")
+    public String getDate() { return date != null ? date.getValue() : null; }
+
+    @JsonProperty("date")
+    public void setDate(String date) { this.date = date != null ? new SerializedString(date) : null; }
+
+    /** The date as a pre-encodable JSON string, or {@code null}. */
+    @JsonIgnore
+    public SerializableString getDateLabel() { return date; }
 
     public double getProjectedPension() { return projectedPension; }
     public void setProjectedPension(double projectedPension) { this.projectedPension = projectedPension; }
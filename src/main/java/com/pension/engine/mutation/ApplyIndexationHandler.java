@@ -1,23 +1,37 @@
 package com.pension.engine.mutation;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.pension.engine.model.request.ApplyIndexationProperties;
 import com.pension.engine.model.request.Mutation;
 import com.pension.engine.model.response.CalculationMessage;
 import com.pension.engine.model.state.Dossier;
-import com.pension.engine.model.state.Policy;
+import com.pension.engine.model.state.PolicyTable;
 import com.pension.engine.model.state.Situation;
+import com.pension.engine.patch.Patch;
 import com.pension.engine.patch.PatchBuilder;
-import com.pension.engine.scheme.SchemeRegistryClient;
+import com.pension.engine.patch.PatchPath;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class ApplyIndexationHandler implements MutationHandler {
 
+    private final boolean deferred;
+
+    public ApplyIndexationHandler() {
+        this(false);
+    }
+
+    /**
+     * @param deferred record indexations in the dossier's ledger instead of rewriting salaries, whenever the
+     *                 request does not need per-policy salary patches and the factor cannot clamp
+     */
+    public ApplyIndexationHandler(boolean deferred) {
+        this.deferred = deferred;
+    }
+
     @Override
-    public MutationResult execute(Situation situation, Mutation mutation, SchemeRegistryClient schemeClient) {
-        JsonNode props = mutation.getMutationProperties();
+    public MutationResult execute(Situation situation, Mutation mutation, MutationContext context) {
+        ApplyIndexationProperties props = (ApplyIndexationProperties) mutation.getProperties();
         Dossier dossier = situation.getDossier();
 
         // Validation
@@ -26,39 +40,43 @@ public class ApplyIndexationHandler implements MutationHandler {
                     "CRITICAL", "DOSSIER_NOT_FOUND", "No dossier exists in the situation"));
         }
 
-        List<Policy> policies = dossier.getPolicies();
+        PolicyTable policies = dossier.getPolicies();
         if (policies.isEmpty()) {
             return MutationResult.critical(new CalculationMessage(
                     "CRITICAL", "NO_POLICIES", "Dossier has no policies"));
         }
 
-        double percentage = props.path("percentage").asDouble();
-        JsonNode schemeIdNode = props.get("scheme_id");
-        JsonNode effectiveBeforeNode = props.get("effective_before");
-        String filterSchemeId = schemeIdNode != null && !schemeIdNode.isNull() ? schemeIdNode.asText() : null;
-        String filterEffectiveBefore = effectiveBeforeNode != null && !effectiveBeforeNode.isNull() ? effectiveBeforeNode.asText() : null;
+        double percentage = props.percentage();
+        String filterSchemeId = props.schemeId();
+        String filterEffectiveBefore = props.effectiveBefore();
+        long filterBeforeDay = props.effectiveBeforeEpochDay();
         boolean hasFilters = filterSchemeId != null || filterEffectiveBefore != null;
 
         double factor = 1.0 + percentage;
         List<CalculationMessage> warnings = null;
-        int matchCount = 0;
 
-        PatchBuilder fwd = new PatchBuilder();
-        PatchBuilder bwd = new PatchBuilder();
+        if (deferred && factor >= 0 && !context.isPatches()) {
+            if (hasFilters && !dossier.getPolicyIndex().anyMatch(filterSchemeId, filterEffectiveBefore, filterBeforeDay,
+                    policies)) {
+                return MutationResult.warning(noMatchingPolicies());
+            }
+            dossier.deferIndexation(factor, filterSchemeId, filterEffectiveBefore, filterBeforeDay);
+            return MutationResult.success();
+        }
 
-        for (int i = 0; i < policies.size(); i++) {
-            Policy policy = policies.get(i);
+        // Filtered indexations only visit the matching policies, resolved through the dossier's index
+        int[] matches = hasFilters
+                ? dossier.getPolicyIndex().match(filterSchemeId, filterEffectiveBefore, filterBeforeDay, policies)
+                : null;
+        int touched = matches != null ? matches.length : policies.size();
 
-            // Apply filters
-            if (filterSchemeId != null && !policy.getSchemeId().equals(filterSchemeId)) {
-                continue;
-            }
-            if (filterEffectiveBefore != null && policy.getEmploymentStartDate().compareTo(filterEffectiveBefore) >= 0) {
-                continue;
-            }
+        PatchBuilder fwd = context.isPatches() ? new PatchBuilder(touched) : null;
+        PatchBuilder bwd = fwd != null ? new PatchBuilder(touched) : null;
+
+        for (int m = 0; m < touched; m++) {
+            int i = matches != null ? matches[m] : m;
 
-            matchCount++;
-            double oldSalary = policy.getSalary();
+            double oldSalary = dossier.settleSalary(i);
             double newSalary = oldSalary * factor;
 
             if (newSalary < 0) {
@@ -69,26 +87,31 @@ public class ApplyIndexationHandler implements MutationHandler {
                         "Salary would be negative after indexation, clamped to 0"));
             }
 
-            policy.setSalary(newSalary);
+            policies.setSalary(i, newSalary);
 
-            String path = "/dossier/policies/" + i + "/salary";
-            fwd.replace(path, newSalary);
-            bwd.replace(path, oldSalary);
+            if (fwd != null) {
+                fwd.replace(PatchPath.POLICY_SALARY, i, newSalary);
+                bwd.replace(PatchPath.POLICY_SALARY, i, oldSalary);
+            }
         }
 
-        if (hasFilters && matchCount == 0) {
+        if (hasFilters && touched == 0) {
             if (warnings == null) warnings = new ArrayList<>(1);
-            warnings.add(new CalculationMessage(
-                    "WARNING", "NO_MATCHING_POLICIES",
-                    "No policies match the specified filter criteria"));
+            warnings.add(noMatchingPolicies());
         }
 
-        ArrayNode fwdPatch = fwd.build();
-        ArrayNode bwdPatch = bwd.build();
+        Patch fwdPatch = fwd != null ? fwd.build() : null;
+        Patch bwdPatch = bwd != null ? bwd.build() : null;
 
         if (warnings != null) {
             return MutationResult.warningsWithPatches(warnings, fwdPatch, bwdPatch);
         }
         return MutationResult.successWithPatches(fwdPatch, bwdPatch);
     }
+
+    private static CalculationMessage noMatchingPolicies() {
+        return new CalculationMessage(
+                "WARNING", "NO_MATCHING_POLICIES",
+                "No policies match the specified filter criteria");
+    }
 }
@@ -1,26 +1,36 @@
 package com.pension.engine.mutation;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.pension.engine.model.request.CalculateRetirementBenefitProperties;
 import com.pension.engine.model.request.Mutation;
 import com.pension.engine.model.response.CalculationMessage;
 import com.pension.engine.model.state.Dossier;
 import com.pension.engine.model.state.Person;
-import com.pension.engine.model.state.Policy;
+import com.pension.engine.model.state.PolicyTable;
 import com.pension.engine.model.state.Situation;
+import com.pension.engine.patch.Patch;
 import com.pension.engine.patch.PatchBuilder;
+import com.pension.engine.patch.PatchPath;
 import com.pension.engine.scheme.SchemeRegistryClient;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class CalculateRetirementBenefitHandler implements MutationHandler {
 
+    private final GridParallelism parallelism;
+
+    public CalculateRetirementBenefitHandler() {
+        this(GridParallelism.SEQUENTIAL);
+    }
+
+    public CalculateRetirementBenefitHandler(GridParallelism parallelism) {
+        this.parallelism = parallelism;
+    }
+
     @Override
-    public MutationResult execute(Situation situation, Mutation mutation, SchemeRegistryClient schemeClient) {
-        JsonNode props = mutation.getMutationProperties();
+    public MutationResult execute(Situation situation, Mutation mutation, MutationContext context) {
+        CalculateRetirementBenefitProperties props = (CalculateRetirementBenefitProperties) mutation.getProperties();
         Dossier dossier = situation.getDossier();
 
         // Validation
@@ -29,38 +39,44 @@ public class CalculateRetirementBenefitHandler implements MutationHandler {
                     "CRITICAL", "DOSSIER_NOT_FOUND", "No dossier exists in the situation"));
         }
 
-        List<Policy> policies = dossier.getPolicies();
+        PolicyTable policies = dossier.getPolicies();
         if (policies.isEmpty()) {
             return MutationResult.critical(new CalculationMessage(
                     "CRITICAL", "NO_POLICIES", "Dossier has no policies"));
         }
 
-        String retirementDateStr = props.path("retirement_date").asText();
-        long retirementEpochDay = LocalDate.parse(retirementDateStr).toEpochDay();
+        // Effective salaries are needed below: fold in any deferred indexations
+        dossier.settleSalaries();
+
+        String retirementDateStr = props.retirementDate();
+        long retirementEpochDay = props.retirementDay();
 
         int policyCount = policies.size();
+        long[] startDays = new long[policyCount];
         double[] years = new double[policyCount];
         double[] effectiveSalaries = new double[policyCount];
+
+        // Per-policy years of service and effective salaries; the sums below stay sequential so
+        // they round exactly as before, whether or not this part was split
+        parallelism.forEach(policyCount, policyCount, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long empStartDay = policies.employmentStartDay(i);
+                long daysDiff = retirementEpochDay - empStartDay;
+                startDays[i] = empStartDay;
+                years[i] = daysDiff < 0 ? 0 : daysDiff / 365.25;
+                effectiveSalaries[i] = policies.salary(i) * policies.partTimeFactor(i);
+            }
+        });
+
         List<CalculationMessage> warnings = null;
         double totalYears = 0;
-
-        // Single pass: calculate years of service, effective salaries, and warnings
         for (int i = 0; i < policyCount; i++) {
-            Policy policy = policies.get(i);
-            long empStartDay = policy.getEmploymentStartEpochDay();
-            long daysDiff = retirementEpochDay - empStartDay;
-
-            if (daysDiff < 0) {
-                years[i] = 0;
+            if (retirementEpochDay < startDays[i]) {
                 if (warnings == null) warnings = new ArrayList<>(2);
                 warnings.add(new CalculationMessage(
                         "WARNING", "RETIREMENT_BEFORE_EMPLOYMENT",
-                        "Retirement date is before employment start date for policy " + policy.getPolicyId()));
-            } else {
-                years[i] = daysDiff / 365.25;
+                        "Retirement date is before employment start date for policy " + policies.policyId(i)));
             }
-
-            effectiveSalaries[i] = policy.getSalary() * policy.getPartTimeFactor();
             totalYears += years[i];
         }
 
@@ -82,6 +98,7 @@ public class CalculateRetirementBenefitHandler implements MutationHandler {
 
         // Fetch accrual rates from scheme registry if available
         Map<String, Double> accrualRates = null;
+        SchemeRegistryClient schemeClient = context.getSchemeClient();
         if (schemeClient != null) {
             accrualRates = schemeClient.getAccrualRates(policies);
         }
@@ -94,58 +111,69 @@ public class CalculateRetirementBenefitHandler implements MutationHandler {
         double weightedAvg = totalYears > 0 ? weightedSum / totalYears : 0;
 
         // Capture old values for backward patch
+        boolean patches = context.isPatches();
         String oldStatus = dossier.getStatus();
         String oldRetirementDate = dossier.getRetirementDate();
-        Double[] oldAttainablePensions = new Double[policyCount];
-        for (int i = 0; i < policyCount; i++) {
-            oldAttainablePensions[i] = policies.get(i).getAttainablePension();
+        Double[] oldAttainablePensions = patches ? new Double[policyCount] : null;
+        for (int i = 0; patches && i < policyCount; i++) {
+            oldAttainablePensions[i] = policies.attainablePensionOrNull(i);
         }
 
         // Calculate annual pension using accrual rate (per-scheme if available, else default 0.02)
+        double total = totalYears;
         if (accrualRates != null) {
-            for (int i = 0; i < policyCount; i++) {
-                if (totalYears > 0) {
-                    double accrualRate = accrualRates.getOrDefault(policies.get(i).getSchemeId(), 0.02);
-                    double policyPension = weightedAvg * years[i] * accrualRate;
-                    policies.get(i).setAttainablePension(policyPension);
-                } else {
-                    policies.get(i).setAttainablePension(0.0);
+            Map<String, Double> rates = accrualRates;
+            parallelism.forEach(policyCount, policyCount, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (total > 0) {
+                        double accrualRate = rates.getOrDefault(policies.schemeId(i), 0.02);
+                        double policyPension = weightedAvg * years[i] * accrualRate;
+                        policies.setAttainablePension(i, policyPension);
+                    } else {
+                        policies.setAttainablePension(i, 0.0);
+                    }
                 }
-            }
+            });
         } else {
             double annualPension = weightedAvg * totalYears * 0.02;
-            for (int i = 0; i < policyCount; i++) {
-                if (totalYears > 0) {
-                    double policyPension = annualPension * (years[i] / totalYears);
-                    policies.get(i).setAttainablePension(policyPension);
-                } else {
-                    policies.get(i).setAttainablePension(0.0);
+            parallelism.forEach(policyCount, policyCount, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (total > 0) {
+                        double policyPension = annualPension * (years[i] / total);
+                        policies.setAttainablePension(i, policyPension);
+                    } else {
+                        policies.setAttainablePension(i, 0.0);
+                    }
                 }
-            }
+            });
         }
 
         // Update dossier status
         dossier.setStatus("RETIRED");
         dossier.setRetirementDate(retirementDateStr);
 
+        if (!patches) {
+            return warnings != null && !warnings.isEmpty()
+                    ? MutationResult.warnings(warnings) : MutationResult.success();
+        }
+
         // Build patches
         PatchBuilder fwd = new PatchBuilder(2 + policyCount);
         PatchBuilder bwd = new PatchBuilder(2 + policyCount);
 
-        fwd.replace("/dossier/status", "RETIRED");
-        bwd.replace("/dossier/status", oldStatus);
+        fwd.replace(PatchPath.DOSSIER_STATUS, "RETIRED");
+        bwd.replace(PatchPath.DOSSIER_STATUS, oldStatus);
 
-        fwd.replace("/dossier/retirement_date", retirementDateStr);
-        bwd.replace("/dossier/retirement_date", oldRetirementDate);
+        fwd.replace(PatchPath.DOSSIER_RETIREMENT_DATE, retirementDateStr);
+        bwd.replace(PatchPath.DOSSIER_RETIREMENT_DATE, oldRetirementDate);
 
         for (int i = 0; i < policyCount; i++) {
-            String path = "/dossier/policies/" + i + "/attainable_pension";
-            fwd.replace(path, policies.get(i).getAttainablePension());
-            bwd.replace(path, oldAttainablePensions[i]);
+            fwd.replace(PatchPath.POLICY_ATTAINABLE_PENSION, i, policies.attainablePension(i));
+            bwd.replace(PatchPath.POLICY_ATTAINABLE_PENSION, i, oldAttainablePensions[i]);
         }
 
-        ArrayNode fwdPatch = fwd.build();
-        ArrayNode bwdPatch = bwd.build();
+        Patch fwdPatch = fwd.build();
+        Patch bwdPatch = bwd.build();
 
         if (warnings != null && !warnings.isEmpty()) {
             return MutationResult.warningsWithPatches(warnings, fwdPatch, bwdPatch);
@@ -1,19 +1,18 @@
 package com.pension.engine.mutation;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pension.engine.model.request.CreateDossierProperties;
 import com.pension.engine.model.request.Mutation;
 import com.pension.engine.model.response.CalculationMessage;
 import com.pension.engine.model.state.Dossier;
 import com.pension.engine.model.state.Person;
 import com.pension.engine.model.state.Situation;
+import com.pension.engine.patch.Patch;
 import com.pension.engine.patch.PatchBuilder;
-import com.pension.engine.scheme.SchemeRegistryClient;
+import com.pension.engine.patch.PatchPath;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 
 public class CreateDossierHandler implements MutationHandler {
 
@@ -21,8 +20,8 @@ public class CreateDossierHandler implements MutationHandler {
     private static final long TODAY_EPOCH_DAY = LocalDate.now().toEpochDay();
 
     @Override
-    public MutationResult execute(Situation situation, Mutation mutation, SchemeRegistryClient schemeClient) {
-        JsonNode props = mutation.getMutationProperties();
+    public MutationResult execute(Situation situation, Mutation mutation, MutationContext context) {
+        CreateDossierProperties props = (CreateDossierProperties) mutation.getProperties();
 
         // Validation
         if (situation.getDossier() != null) {
@@ -30,37 +29,39 @@ public class CreateDossierHandler implements MutationHandler {
                     "CRITICAL", "DOSSIER_ALREADY_EXISTS", "A dossier already exists in the situation"));
         }
 
-        String name = props.path("name").asText("");
+        String name = props.name();
         if (name.isBlank()) {
             return MutationResult.critical(new CalculationMessage(
                     "CRITICAL", "INVALID_NAME", "Name is empty or blank"));
         }
 
-        String birthDateStr = props.path("birth_date").asText("");
-        try {
-            LocalDate birthDate = LocalDate.parse(birthDateStr);
-            if (birthDate.toEpochDay() > TODAY_EPOCH_DAY) {
-                return MutationResult.critical(new CalculationMessage(
-                        "CRITICAL", "INVALID_BIRTH_DATE", "Birth date is in the future"));
-            }
-        } catch (DateTimeParseException e) {
+        String birthDateStr = props.birthDate();
+        long birthEpochDay = props.birthEpochDay();
+        if (birthEpochDay == CreateDossierProperties.INVALID_DATE) {
             return MutationResult.critical(new CalculationMessage(
                     "CRITICAL", "INVALID_BIRTH_DATE", "Birth date is not a valid date"));
         }
+        if (birthEpochDay > TODAY_EPOCH_DAY) {
+            return MutationResult.critical(new CalculationMessage(
+                    "CRITICAL", "INVALID_BIRTH_DATE", "Birth date is in the future"));
+        }
 
         // Application
-        String dossierId = props.path("dossier_id").asText();
-        String personId = props.path("person_id").asText();
+        String dossierId = props.dossierId();
+        String personId = props.personId();
 
         Dossier dossier = new Dossier();
         dossier.setDossierId(dossierId);
         dossier.setStatus("ACTIVE");
         dossier.setRetirementDate(null);
 
-        Person person = new Person(personId, "PARTICIPANT", name, birthDateStr);
+        Person person = new Person(personId, "PARTICIPANT", name, birthDateStr, birthEpochDay);
         dossier.getPersons().add(person);
 
         situation.setDossier(dossier);
+        if (!context.isPatches()) {
+            return MutationResult.success();
+        }
 
         // Build forward patch value manually (avoids mapper.valueToTree overhead)
         ObjectNode dossierNode = NF.objectNode();
@@ -75,8 +76,8 @@ public class CreateDossierHandler implements MutationHandler {
         dossierNode.set("persons", NF.arrayNode(1).add(personNode));
         dossierNode.set("policies", NF.arrayNode());
 
-        ArrayNode fwd = new PatchBuilder(1).replace("/dossier", dossierNode).build();
-        ArrayNode bwd = new PatchBuilder(1).replace("/dossier", NF.nullNode()).build();
+        Patch fwd = new PatchBuilder(1).replace(PatchPath.DOSSIER, dossierNode).build();
+        Patch bwd = new PatchBuilder(1).replaceWithNull(PatchPath.DOSSIER).build();
 
         return MutationResult.successWithPatches(fwd, bwd);
     }
@@ -0,0 +1,124 @@
+package com.pension.engine.mutation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Splits the per-policy or per-date work of large grids across a shared {@link ForkJoinPool}.
+ *
+ * <p>Only work at or above the threshold is split, and the pool's threads are shared fairly between the
+ * grids running at the same time: with {@code n} concurrent large grids each gets {@code threads / n} tasks.
+ * A grid also gets no more tasks than there are threads left over by the other calculations executing right
+ * now, large or not, so under high request concurrency, when the engine workers already keep every core busy,
+ * it does not add forked work on top. Once either share drops below two the grid runs sequentially on the
+ * calling thread.
+ *
+ * <p>Ranges start at multiples of 64 so tasks never share a word of {@link com.pension.engine.model.state.PolicyTable}'s
+ * null bitmap. A failing range rethrows its original exception on the calling thread, the lowest range first,
+ * so errors match a sequential run.
+ */
+public final class GridParallelism {
+
+    /** Runs everything on the calling thread. */
+    public static final GridParallelism SEQUENTIAL = new GridParallelism(1, Long.MAX_VALUE, () -> 0);
+
+    private static final int ALIGNMENT = 64;
+
+    private final int threads;
+    private final long threshold;
+    private final LongSupplier executing;
+    private final ForkJoinPool pool;
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * @param threads   pool size, or {@code 0} for the number of CPU cores; {@code 1} disables splitting
+     * @param threshold minimum work (grid cells, or policies for one-dimensional work) before splitting
+     * @param executing calculations executing a mutation right now, including the caller's
+     */
+    public GridParallelism(int threads, long threshold, LongSupplier executing) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.threshold = threshold;
+        this.executing = executing;
+        if (this.threads > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.pool = new ForkJoinPool(this.threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("grid-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        } else {
+            this.pool = null;
+        }
+    }
+
+    /** A range of positions {@code [from, to)}. */
+    @FunctionalInterface
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs {@code task} over {@code [0, count)}, split into ranges when {@code work} reaches the threshold and
+     * enough of the pool is free; otherwise as one range on the calling thread. Returns once every range is done.
+     */
+    public void forEach(int count, long work, RangeTask task) {
+        if (pool == null || work < threshold || count <= ALIGNMENT) {
+            task.run(0, count);
+            return;
+        }
+        int concurrent = running.incrementAndGet();
+        try {
+            long idle = threads - Math.max(0, executing.getAsLong() - 1);
+            int tasks = (int) Math.min(Math.min(threads / concurrent, idle), (count + ALIGNMENT - 1) / ALIGNMENT);
+            if (tasks < 2) {
+                task.run(0, count);
+                return;
+            }
+            int chunk = ((count + tasks - 1) / tasks + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+            Range[] ranges = new Range[(count + chunk - 1) / chunk];
+            for (int r = 1; r < ranges.length; r++) {
+                ranges[r] = new Range(task, r * chunk, Math.min(count, (r + 1) * chunk));
+                pool.execute(ranges[r]);
+            }
+            // The caller takes the first range instead of idling
+            ranges[0] = new Range(task, 0, Math.min(count, chunk));
+            ranges[0].compute();
+            for (int r = 1; r < ranges.length; r++) {
+                ranges[r].join();
+            }
+            for (Range range : ranges) {
+                if (range.failure instanceof Error error) throw error;
+                if (range.failure != null) throw (RuntimeException) range.failure;
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static final class Range extends RecursiveAction {
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        // RangeTask cannot throw checked exceptions, so this is a RuntimeException or an Error
+        private Throwable failure;
+
+        Range(RangeTask task, int from, int to) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                task.run(from, to);
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+    }
+}
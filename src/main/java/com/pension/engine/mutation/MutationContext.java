@@ -0,0 +1,23 @@
+package com.pension.engine.mutation;
+
+import com.pension.engine.scheme.SchemeRegistryClient;
+
+/**
+ * Per-request collaborators and options handed to every {@link MutationHandler}.
+ */
+public final class MutationContext {
+
+    private final SchemeRegistryClient schemeClient;
+    private final boolean patches;
+
+    public MutationContext(SchemeRegistryClient schemeClient, boolean patches) {
+        this.schemeClient = schemeClient;
+        this.patches = patches;
+    }
+
+    /** Scheme registry client, or {@code null} when handlers run without one. */
+    public SchemeRegistryClient getSchemeClient() { return schemeClient; }
+
+    /** Whether handlers must produce forward/backward patches for this request. */
+    public boolean isPatches() { return patches; }
+}
@@ -1,22 +1,37 @@
 package com.pension.engine.mutation;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.pension.engine.model.request.MutationDefinition;
 
 public class MutationRegistry {
 
-    private final Map<String, MutationHandler> handlers;
+    // Indexed by MutationDefinition ordinal; the definition is resolved when the mutation is read
+    private final MutationHandler[] handlers;
 
     public MutationRegistry() {
-        handlers = new HashMap<>(8);
-        handlers.put("create_dossier", new CreateDossierHandler());
-        handlers.put("add_policy", new AddPolicyHandler());
-        handlers.put("apply_indexation", new ApplyIndexationHandler());
-        handlers.put("calculate_retirement_benefit", new CalculateRetirementBenefitHandler());
-        handlers.put("project_future_benefits", new ProjectFutureBenefitsHandler());
+        this(false);
     }
 
-    public MutationHandler getHandler(String mutationDefinitionName) {
-        return handlers.get(mutationDefinitionName);
+    public MutationRegistry(boolean deferredIndexation) {
+        this(deferredIndexation, GridParallelism.SEQUENTIAL, new ProjectionDateCache(0));
+    }
+
+    public MutationRegistry(boolean deferredIndexation, GridParallelism parallelism, ProjectionDateCache dateCache) {
+        this(deferredIndexation, parallelism, dateCache, false);
+    }
+
+    public MutationRegistry(boolean deferredIndexation, GridParallelism parallelism, ProjectionDateCache dateCache,
+                            boolean sweepProjectionAverages) {
+        handlers = new MutationHandler[MutationDefinition.values().length];
+        handlers[MutationDefinition.CREATE_DOSSIER.ordinal()] = new CreateDossierHandler();
+        handlers[MutationDefinition.ADD_POLICY.ordinal()] = new AddPolicyHandler();
+        handlers[MutationDefinition.APPLY_INDEXATION.ordinal()] = new ApplyIndexationHandler(deferredIndexation);
+        handlers[MutationDefinition.CALCULATE_RETIREMENT_BENEFIT.ordinal()] = new CalculateRetirementBenefitHandler(parallelism);
+        handlers[MutationDefinition.PROJECT_FUTURE_BENEFITS.ordinal()] = new ProjectFutureBenefitsHandler(parallelism, dateCache,
+                sweepProjectionAverages);
+    }
+
+    /** The handler for {@code definition}, or {@code null} for an unknown ({@code null}) definition. */
+    public MutationHandler getHandler(MutationDefinition definition) {
+        return definition == null ? null : handlers[definition.ordinal()];
     }
 }
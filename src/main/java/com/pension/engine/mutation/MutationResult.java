@@ -1,6 +1,6 @@
 package com.pension.engine.mutation;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.pension.engine.patch.Patch;
 import com.pension.engine.model.response.CalculationMessage;
 
 import java.util.List;
@@ -11,11 +11,11 @@ public class MutationResult {
 
     private final List<CalculationMessage> messages;
     private final boolean critical;
-    private final ArrayNode forwardPatch;
-    private final ArrayNode backwardPatch;
+    private final Patch forwardPatch;
+    private final Patch backwardPatch;
 
     private MutationResult(List<CalculationMessage> messages, boolean critical,
-                           ArrayNode forwardPatch, ArrayNode backwardPatch) {
+                           Patch forwardPatch, Patch backwardPatch) {
         this.messages = messages;
         this.critical = critical;
         this.forwardPatch = forwardPatch;
@@ -26,7 +26,8 @@ public class MutationResult {
         return SUCCESS;
     }
 
-    public static MutationResult successWithPatches(ArrayNode forwardPatch, ArrayNode backwardPatch) {
+    /** {@code null} patches mean the request asked for none; see {@link MutationContext#isPatches()}. */
+    public static MutationResult successWithPatches(Patch forwardPatch, Patch backwardPatch) {
         return new MutationResult(List.of(), false, forwardPatch, backwardPatch);
     }
 
@@ -58,13 +59,13 @@ public class MutationResult {
     }
 
     public static MutationResult warningsWithPatches(List<CalculationMessage> messages,
-                                                     ArrayNode forwardPatch, ArrayNode backwardPatch) {
+                                                     Patch forwardPatch, Patch backwardPatch) {
         return new MutationResult(messages, false, forwardPatch, backwardPatch);
     }
 
     public List<CalculationMessage> getMessages() { return messages; }
     public boolean isCritical() { return critical; }
-    public ArrayNode getForwardPatch() { return forwardPatch; }
-    public ArrayNode getBackwardPatch() { return backwardPatch; }
+    public Patch getForwardPatch() { return forwardPatch; }
+    public Patch getBackwardPatch() { return backwardPatch; }
     public boolean hasPatches() { return forwardPatch != null; }
 }
@@ -1,30 +1,49 @@
 package com.pension.engine.mutation;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.pension.engine.model.request.Mutation;
+import com.pension.engine.model.request.ProjectFutureBenefitsProperties;
 import com.pension.engine.model.response.CalculationMessage;
 import com.pension.engine.model.state.Dossier;
-import com.pension.engine.model.state.Policy;
+import com.pension.engine.model.state.PolicyTable;
 import com.pension.engine.model.state.Projection;
 import com.pension.engine.model.state.Situation;
+import com.pension.engine.patch.Patch;
 import com.pension.engine.patch.PatchBuilder;
+import com.pension.engine.patch.PatchPath;
 import com.pension.engine.scheme.SchemeRegistryClient;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class ProjectFutureBenefitsHandler implements MutationHandler {
 
-    private static final JsonNodeFactory NF = JsonNodeFactory.instance;
+    private final GridParallelism parallelism;
+    private final ProjectionDateCache dateCache;
+    private final boolean sweepAverages;
+
+    public ProjectFutureBenefitsHandler() {
+        this(GridParallelism.SEQUENTIAL, new ProjectionDateCache(0));
+    }
+
+    public ProjectFutureBenefitsHandler(GridParallelism parallelism, ProjectionDateCache dateCache) {
+        this(parallelism, dateCache, false);
+    }
+
+    /**
+     * @param sweepAverages take the per-date averages from {@link ProjectionKernel#sweepWeightedAverages} instead
+     *                      of summing over every policy at every date; not bit-identical to the per-policy sum
+     */
+    public ProjectFutureBenefitsHandler(GridParallelism parallelism, ProjectionDateCache dateCache,
+                                        boolean sweepAverages) {
+        this.parallelism = parallelism;
+        this.dateCache = dateCache;
+        this.sweepAverages = sweepAverages;
+    }
 
     @Override
-    public MutationResult execute(Situation situation, Mutation mutation, SchemeRegistryClient schemeClient) {
-        JsonNode props = mutation.getMutationProperties();
+    public MutationResult execute(Situation situation, Mutation mutation, MutationContext context) {
+        ProjectFutureBenefitsProperties props = (ProjectFutureBenefitsProperties) mutation.getProperties();
         Dossier dossier = situation.getDossier();
 
         // Validation
@@ -33,15 +52,18 @@ public class ProjectFutureBenefitsHandler implements MutationHandler {
                     "CRITICAL", "DOSSIER_NOT_FOUND", "No dossier exists in the situation"));
         }
 
-        List<Policy> policies = dossier.getPolicies();
+        PolicyTable policies = dossier.getPolicies();
         if (policies.isEmpty()) {
             return MutationResult.critical(new CalculationMessage(
                     "CRITICAL", "NO_POLICIES", "Dossier has no policies"));
         }
 
-        String startDateStr = props.path("projection_start_date").asText();
-        String endDateStr = props.path("projection_end_date").asText();
-        int intervalMonths = props.path("projection_interval_months").asInt();
+        // Effective salaries are needed below: fold in any deferred indexations
+        dossier.settleSalaries();
+
+        String startDateStr = props.projectionStartDate();
+        String endDateStr = props.projectionEndDate();
+        int intervalMonths = props.projectionIntervalMonths();
 
         if (endDateStr.compareTo(startDateStr) <= 0) {
             return MutationResult.critical(new CalculationMessage(
@@ -52,93 +74,78 @@ public class ProjectFutureBenefitsHandler implements MutationHandler {
 
         // Check projection before employment warning
         for (int i = 0; i < policies.size(); i++) {
-            Policy policy = policies.get(i);
-            if (startDateStr.compareTo(policy.getEmploymentStartDate()) < 0) {
+            if (startDateStr.compareTo(policies.employmentStartDate(i)) < 0) {
                 if (warnings == null) warnings = new ArrayList<>(1);
                 warnings.add(new CalculationMessage(
                         "WARNING", "PROJECTION_BEFORE_EMPLOYMENT",
-                        "Projection start date is before employment start date for policy " + policy.getPolicyId()));
+                        "Projection start date is before employment start date for policy " + policies.policyId(i)));
             }
         }
 
         // Fetch accrual rates
         Map<String, Double> accrualRates = null;
+        SchemeRegistryClient schemeClient = context.getSchemeClient();
         if (schemeClient != null) {
             accrualRates = schemeClient.getAccrualRates(policies);
         }
 
         int policyCount = policies.size();
-        LocalDate startDate = LocalDate.parse(startDateStr);
-        LocalDate endDate = LocalDate.parse(endDateStr);
+        long startDay = props.startDay();
+        long endDay = props.endDay();
 
         // Pre-parse employment start dates as epoch days and compute effective salaries
         long[] empStartDays = new long[policyCount];
         double[] effectiveSalaries = new double[policyCount];
         double[] accrualRateArr = new double[policyCount];
         for (int i = 0; i < policyCount; i++) {
-            Policy policy = policies.get(i);
-            empStartDays[i] = policy.getEmploymentStartEpochDay();
-            effectiveSalaries[i] = policy.getSalary() * policy.getPartTimeFactor();
+            empStartDays[i] = policies.employmentStartDay(i);
+            effectiveSalaries[i] = policies.salary(i) * policies.partTimeFactor(i);
             if (accrualRates != null) {
-                accrualRateArr[i] = accrualRates.getOrDefault(policy.getSchemeId(), 0.02);
+                accrualRateArr[i] = accrualRates.getOrDefault(policies.schemeId(i), 0.02);
             } else {
                 accrualRateArr[i] = 0.02;
             }
         }
 
-        // Pre-compute all projection dates: epoch days and date strings in a single pass
-        // Count dates first
-        int dateCount = 0;
-        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusMonths(intervalMonths)) {
-            dateCount++;
-        }
-        long[] projEpochDays = new long[dateCount];
-        String[] projDateStrings = new String[dateCount];
-        {
-            int idx = 0;
-            for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusMonths(intervalMonths)) {
-                projEpochDays[idx] = d.toEpochDay();
-                projDateStrings[idx] = d.toString();
-                idx++;
-            }
-        }
-
-        // Initialize projections for each policy and compute in single pass
-        List<List<Projection>> allProjections = new ArrayList<>(policyCount);
-        for (int i = 0; i < policyCount; i++) {
-            allProjections.add(new ArrayList<>(dateCount));
+        // Projection dates and their labels, shared between requests over the same range
+        ProjectionDates dates = dateCache.get(startDay, endDay, intervalMonths);
+        int dateCount = dates.size();
+        long[] projEpochDays = dates.epochDays();
+
+        // Per-date aggregates split by date ranges, then the pension grid, policy-major and split by policy ranges
+        ProjectionKernel kernel = ProjectionKernel.preferred();
+        long cells = (long) policyCount * dateCount;
+        double[] weightedAvg = new double[dateCount];
+        boolean[] hasService = new boolean[dateCount];
+        if (sweepAverages) {
+            ProjectionKernel.sweepWeightedAverages(projEpochDays, empStartDays, effectiveSalaries, weightedAvg,
+                    hasService);
+        } else {
+            parallelism.forEach(dateCount, cells, (from, to) ->
+                    kernel.weightedAverages(projEpochDays, empStartDays, effectiveSalaries, weightedAvg, hasService,
+                            from, to));
         }
 
-        // Reuse arrays across projection dates
-        double[] years = new double[policyCount];
-
-        for (int d = 0; d < dateCount; d++) {
-            long projDayEpoch = projEpochDays[d];
-            double totalYears = 0;
-            double weightedSum = 0;
-
-            for (int i = 0; i < policyCount; i++) {
-                long daysDiff = projDayEpoch - empStartDays[i];
-                if (daysDiff >= 0) {
-                    years[i] = daysDiff / 365.25;
-                } else {
-                    years[i] = 0;
+        double[] pensions = new double[policyCount * dateCount];
+        @SuppressWarnings("unchecked")
+        List<Projection>[] rows = new List[policyCount];
+        parallelism.forEach(policyCount, cells, (from, to) -> {
+            kernel.pensions(projEpochDays, empStartDays, accrualRateArr, weightedAvg, hasService, pensions, from, to);
+            for (int i = from, offset = from * dateCount; i < to; i++, offset += dateCount) {
+                List<Projection> projections = new ArrayList<>(dateCount);
+                for (int d = 0; d < dateCount; d++) {
+                    projections.add(new Projection(dates.label(d), pensions[offset + d]));
                 }
-                totalYears += years[i];
-                weightedSum += effectiveSalaries[i] * years[i];
+                rows[i] = projections;
             }
+        });
 
-            double weightedAvg = totalYears > 0 ? weightedSum / totalYears : 0;
-
+        if (!context.isPatches()) {
             for (int i = 0; i < policyCount; i++) {
-                double policyPension;
-                if (totalYears > 0) {
-                    policyPension = weightedAvg * years[i] * accrualRateArr[i];
-                } else {
-                    policyPension = 0;
-                }
-                allProjections.get(i).add(new Projection(projDateStrings[d], policyPension));
+                policies.setProjections(i, rows[i]);
             }
+            return warnings != null && !warnings.isEmpty()
+                    ? MutationResult.warnings(warnings) : MutationResult.success();
         }
 
         // Capture old projections for backward patch and build forward patch
@@ -146,41 +153,19 @@ public class ProjectFutureBenefitsHandler implements MutationHandler {
         PatchBuilder bwd = new PatchBuilder(policyCount);
 
         for (int i = 0; i < policyCount; i++) {
-            List<Projection> oldProjections = policies.get(i).getProjections();
-            List<Projection> newProjections = allProjections.get(i);
-
-            policies.get(i).setProjections(newProjections);
+            List<Projection> oldProjections = policies.projections(i);
+            List<Projection> newProjections = rows[i];
 
-            String path = "/dossier/policies/" + i + "/projections";
-
-            // Build forward patch value as ArrayNode manually
-            ArrayNode projArrayNode = NF.arrayNode(dateCount);
-            for (int d = 0; d < dateCount; d++) {
-                Projection p = newProjections.get(d);
-                ObjectNode pNode = NF.objectNode();
-                pNode.put("date", p.getDate());
-                pNode.put("projected_pension", p.getProjectedPension());
-                projArrayNode.add(pNode);
-            }
-            fwd.replace(path, projArrayNode);
+            policies.setProjections(i, newProjections);
 
+            // Projection lists are never modified once built, so the patches reference them directly
+            fwd.replace(PatchPath.POLICY_PROJECTIONS, i, newProjections);
             // Backward: restore old value (null or previous projections)
-            if (oldProjections == null) {
-                bwd.replace(path, NF.nullNode());
-            } else {
-                ArrayNode oldArrayNode = NF.arrayNode(oldProjections.size());
-                for (Projection p : oldProjections) {
-                    ObjectNode pNode = NF.objectNode();
-                    pNode.put("date", p.getDate());
-                    pNode.put("projected_pension", p.getProjectedPension());
-                    oldArrayNode.add(pNode);
-                }
-                bwd.replace(path, oldArrayNode);
-            }
+            bwd.replace(PatchPath.POLICY_PROJECTIONS, i, oldProjections);
         }
 
-        ArrayNode fwdPatch = fwd.build();
-        ArrayNode bwdPatch = bwd.build();
+        Patch fwdPatch = fwd.build();
+        Patch bwdPatch = bwd.build();
 
         if (warnings != null && !warnings.isEmpty()) {
             return MutationResult.warningsWithPatches(warnings, fwdPatch, bwdPatch);
@@ -0,0 +1,78 @@
+package com.pension.engine.mutation;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent cache of {@link ProjectionDates} keyed on (start, end, interval). Most callers project
+ * over the same few ranges, so the month stepping and date formatting happen once per range instead of once per
+ * request. When full, an arbitrary entry is evicted; sequences longer than {@link #MAX_CACHED_DATES} are built
+ * per request and never cached, so the cache's footprint stays bounded.
+ */
+public final class ProjectionDateCache {
+
+    /** 100 years of monthly dates. */
+    static final int MAX_CACHED_DATES = 1200;
+
+    private final int capacity;
+    private final ConcurrentHashMap<Key, ProjectionDates> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Key(long startDay, long endDay, int intervalMonths) {}
+
+    /** @param capacity maximum number of cached ranges; {@code 0} disables caching */
+    public ProjectionDateCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.entries = new ConcurrentHashMap<>(Math.max(16, this.capacity));
+    }
+
+    /** The dates from {@code startDay} through {@code endDay}, both epoch days. */
+    public ProjectionDates get(long startDay, long endDay, int intervalMonths) {
+        if (capacity == 0) {
+            misses.increment();
+            return ProjectionDates.of(startDay, endDay, intervalMonths);
+        }
+        Key key = new Key(startDay, endDay, intervalMonths);
+        ProjectionDates dates = entries.get(key);
+        if (dates != null) {
+            hits.increment();
+            return dates;
+        }
+        misses.increment();
+        dates = ProjectionDates.of(startDay, endDay, intervalMonths);
+        if (dates.size() > MAX_CACHED_DATES) {
+            return dates;
+        }
+        // Concurrent misses may overshoot briefly; each one evicts before inserting
+        while (entries.size() >= capacity) {
+            if (!evictOne()) break;
+        }
+        ProjectionDates raced = entries.putIfAbsent(key, dates);
+        return raced != null ? raced : dates;
+    }
+
+    private boolean evictOne() {
+        Iterator<Key> keys = entries.keySet().iterator();
+        if (!keys.hasNext()) {
+            return false;
+        }
+        if (entries.remove(keys.next()) != null) {
+            evictions.increment();
+        }
+        return true;
+    }
+
+    public int capacity() { return capacity; }
+
+    public int size() { return entries.size(); }
+
+    public long hits() { return hits.sum(); }
+
+    public long misses() { return misses.sum(); }
+
+    public long evictions() { return evictions.sum(); }
+}
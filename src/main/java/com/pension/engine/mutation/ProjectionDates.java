@@ -0,0 +1,51 @@
+package com.pension.engine.mutation;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.pension.engine.model.IsoDate;
+
+import java.util.Arrays;
+
+/**
+ * The projection dates of one (start, end, interval) combination: epoch days plus their {@code yyyy-MM-dd}
+ * labels with the UTF-8 bytes already encoded. Instances are shared through {@link ProjectionDateCache}
+ * and must never be modified.
+ */
+public final class ProjectionDates {
+
+    private final long[] epochDays;
+    private final SerializedString[] labels;
+
+    private ProjectionDates(long[] epochDays, SerializedString[] labels) {
+        this.epochDays = epochDays;
+        this.labels = labels;
+    }
+
+    /**
+     * Steps {@code intervalMonths} at a time from {@code start} until past {@code end}. Each step adds to the
+     * previous date, so a month-end start stays clamped (Jan 31, Feb 28, Mar 28) exactly as before.
+     */
+    static ProjectionDates of(long startDay, long endDay, int intervalMonths) {
+        long[] epochDays = new long[16];
+        SerializedString[] labels = new SerializedString[16];
+        int count = 0;
+        for (long d = startDay; d <= endDay; d = IsoDate.plusMonths(d, intervalMonths)) {
+            if (count == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, count << 1);
+                labels = Arrays.copyOf(labels, count << 1);
+            }
+            SerializedString label = new SerializedString(IsoDate.format(d));
+            label.asQuotedUTF8();
+            epochDays[count] = d;
+            labels[count] = label;
+            count++;
+        }
+        return new ProjectionDates(Arrays.copyOf(epochDays, count), Arrays.copyOf(labels, count));
+    }
+
+    public int size() { return epochDays.length; }
+
+    /** Ascending epoch days; shared, so callers must not write to the array. */
+    long[] epochDays() { return epochDays; }
+
+    public SerializedString label(int index) { return labels[index]; }
+}
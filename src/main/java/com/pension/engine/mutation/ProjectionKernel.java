@@ -0,0 +1,171 @@
+package com.pension.engine.mutation;
+
+/**
+ * The dates × policies grid of project_future_benefits: for every projection date, years of service per policy,
+ * the service-weighted average salary over all policies, and each policy's projected pension.
+ *
+ * <p>Results are laid out policy-major, {@code pensions[policy * dateCount + date]}, so each policy's projection
+ * list is read sequentially. Every implementation produces bit-identical results: per date, policies are summed
+ * in index order with the same (unfused) operations, so the averages round exactly as a plain loop over the
+ * policies does. {@link #sweepWeightedAverages} trades that exactness for a single pass over the dates.
+ */
+public abstract class ProjectionKernel {
+
+    static final double DAYS_PER_YEAR = 365.25;
+
+    private static final ProjectionKernel SCALAR = new ScalarProjectionKernel();
+    private static final ProjectionKernel VECTOR = loadVector();
+    private static final ProjectionKernel PREFERRED = VECTOR != null ? VECTOR : SCALAR;
+
+    /** The vector kernel when {@code jdk.incubator.vector} is available, otherwise the scalar one. */
+    public static ProjectionKernel preferred() { return PREFERRED; }
+
+    public static ProjectionKernel scalar() { return SCALAR; }
+
+    /** The vector kernel, or {@code null} if the JVM was started without {@code --add-modules jdk.incubator.vector}. */
+    public static ProjectionKernel vector() { return VECTOR; }
+
+    /**
+     * Fills {@code pensions} (length {@code empStartDays.length * projectionDays.length}) with the projected
+     * pension of every policy at every projection date.
+     */
+    public final void compute(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                              double[] accrualRates, double[] pensions) {
+        int dateCount = projectionDays.length;
+        double[] weightedAvg = new double[dateCount];
+        boolean[] hasService = new boolean[dateCount];
+        weightedAverages(projectionDays, empStartDays, effectiveSalaries, weightedAvg, hasService, 0, dateCount);
+        pensions(projectionDays, empStartDays, accrualRates, weightedAvg, hasService, pensions,
+                0, empStartDays.length);
+    }
+
+    /**
+     * Service-weighted average salary of the dates {@code [fromDate, toDate)}: the salary-weighted years of
+     * service over the total years, summed over the policies in order, and whether the total is positive.
+     * Disjoint date ranges may run concurrently.
+     */
+    public abstract void weightedAverages(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                          double[] weightedAvg, boolean[] hasService, int fromDate, int toDate);
+
+    /**
+     * Per-cell pensions of the policies {@code [fromPolicy, toPolicy)}: {@code weightedAvg[d] * years *
+     * accrualRates[i]}, or zero where {@code hasService[d]} is false. Disjoint policy ranges may run concurrently.
+     */
+    public abstract void pensions(long[] projectionDays, long[] empStartDays, double[] accrualRates,
+                                  double[] weightedAvg, boolean[] hasService, double[] pensions,
+                                  int fromPolicy, int toPolicy);
+
+    /** Reference per-date loop over the dates {@code [from, to)}; also covers the vector kernel's tail. */
+    static void scalarWeightedAverages(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                       double[] weightedAvg, boolean[] hasService, int from, int to) {
+        int policyCount = empStartDays.length;
+        for (int d = from; d < to; d++) {
+            long projDayEpoch = projectionDays[d];
+            double totalYears = 0;
+            double weightedSum = 0;
+            for (int i = 0; i < policyCount; i++) {
+                long daysDiff = projDayEpoch - empStartDays[i];
+                double years = daysDiff >= 0 ? daysDiff / DAYS_PER_YEAR : 0;
+                totalYears += years;
+                weightedSum += effectiveSalaries[i] * years;
+            }
+            hasService[d] = totalYears > 0;
+            weightedAvg[d] = totalYears > 0 ? weightedSum / totalYears : 0;
+        }
+    }
+
+    /**
+     * Opt-in alternative to {@link #weightedAverages} over all dates at once, in O(dates + policies log dates).
+     * Projection days must be ascending.
+     *
+     * <p>A policy contributes {@code (day - start) / 365.25} years from its start onwards, so both the total
+     * years and the salary-weighted years are linear in the date between breakpoints. Each policy is bucketed
+     * at the first projection date it counts for, and one pass over the dates keeps running sums of the
+     * started policies: their count, start days, salaries and salary × start day. The 365.25 cancels out of
+     * the average and the day sums are exact integers, but the average is rounded differently from the
+     * per-policy sum: projected pensions may differ from it in the last bits (at most 1.6e-10 on the golden
+     * cases).
+     */
+    public static void sweepWeightedAverages(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                             double[] weightedAvg, boolean[] hasService) {
+        int dateCount = projectionDays.length;
+        if (dateCount == 0) return;
+        // Days relative to the first projection date keep the products small
+        long origin = projectionDays[0];
+
+        int[] startedCount = new int[dateCount];
+        long[] startedDays = new long[dateCount];
+        double[] startedSalary = new double[dateCount];
+        double[] startedSalaryDays = new double[dateCount];
+        for (int i = 0; i < empStartDays.length; i++) {
+            int first = firstOnOrAfter(projectionDays, empStartDays[i]);
+            if (first == dateCount) continue;
+            long start = empStartDays[i] - origin;
+            startedCount[first]++;
+            startedDays[first] += start;
+            startedSalary[first] += effectiveSalaries[i];
+            startedSalaryDays[first] += effectiveSalaries[i] * start;
+        }
+
+        long count = 0;
+        long startSum = 0;
+        double salarySum = 0;
+        double salaryDaySum = 0;
+        for (int d = 0; d < dateCount; d++) {
+            count += startedCount[d];
+            startSum += startedDays[d];
+            salarySum += startedSalary[d];
+            salaryDaySum += startedSalaryDays[d];
+
+            long day = projectionDays[d] - origin;
+            long serviceDays = count * day - startSum;
+            hasService[d] = serviceDays > 0;
+            weightedAvg[d] = serviceDays > 0 ? (salarySum * day - salaryDaySum) / serviceDays : 0;
+        }
+    }
+
+    /** Index of the first projection day not before {@code day}, or {@code projectionDays.length}. */
+    private static int firstOnOrAfter(long[] projectionDays, long day) {
+        int lo = 0;
+        int hi = projectionDays.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (projectionDays[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Reference per-cell loop over the dates {@code [from, to)}; also covers the vector kernel's tail. */
+    static void scalarPensions(long[] projectionDays, long[] empStartDays, double[] accrualRates,
+                               double[] weightedAvg, boolean[] hasService, double[] pensions,
+                               int fromPolicy, int toPolicy, int from, int to) {
+        int dateCount = projectionDays.length;
+        for (int i = fromPolicy; i < toPolicy; i++) {
+            long startDay = empStartDays[i];
+            double rate = accrualRates[i];
+            int offset = i * dateCount;
+            for (int d = from; d < to; d++) {
+                long daysDiff = projectionDays[d] - startDay;
+                double years = daysDiff >= 0 ? daysDiff / DAYS_PER_YEAR : 0;
+                pensions[offset + d] = hasService[d] ? weightedAvg[d] * years * rate : 0;
+            }
+        }
+    }
+
+    // Loaded reflectively so this class never links against the incubator module when it is absent
+    private static ProjectionKernel loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (ProjectionKernel) Class.forName("com.pension.engine.mutation.VectorProjectionKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.pension.engine.mutation;
+
+final class ScalarProjectionKernel extends ProjectionKernel {
+
+    @Override
+    public void weightedAverages(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                 double[] weightedAvg, boolean[] hasService, int fromDate, int toDate) {
+        scalarWeightedAverages(projectionDays, empStartDays, effectiveSalaries, weightedAvg, hasService,
+                fromDate, toDate);
+    }
+
+    @Override
+    public void pensions(long[] projectionDays, long[] empStartDays, double[] accrualRates,
+                         double[] weightedAvg, boolean[] hasService, double[] pensions,
+                         int fromPolicy, int toPolicy) {
+        scalarPensions(projectionDays, empStartDays, accrualRates, weightedAvg, hasService, pensions,
+                fromPolicy, toPolicy, 0, projectionDays.length);
+    }
+
+    @Override
+    public String toString() { return "scalar"; }
+}
@@ -0,0 +1,67 @@
+package com.pension.engine.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.pension.engine.model.state.Projection;
+
+import java.util.List;
+
+/**
+ * An immutable RFC 6902 patch held as parallel arrays: operation, path template and index, and either
+ * a primitive or a pre-built value per entry. Nothing is turned into JSON nodes or pointer strings
+ * until {@link PatchSerializer} writes it (or the gRPC layer converts it).
+ */
+@JsonSerialize(using = PatchSerializer.class)
+public final class Patch {
+
+    /** What kind of value an operation carries. */
+    public enum ValueKind { NONE, NULL, NUMBER, TEXT, NODE, PROJECTIONS }
+
+    public static final Patch EMPTY = new Patch(new PatchOp[0], new PatchPath[0], new int[0],
+            new ValueKind[0], new double[0], new Object[0], 0);
+
+    private final PatchOp[] ops;
+    private final PatchPath[] paths;
+    private final int[] indexes;
+    private final ValueKind[] kinds;
+    private final double[] numbers;
+    private final Object[] values;
+    private final int size;
+
+    Patch(PatchOp[] ops, PatchPath[] paths, int[] indexes, ValueKind[] kinds, double[] numbers,
+          Object[] values, int size) {
+        this.ops = ops;
+        this.paths = paths;
+        this.indexes = indexes;
+        this.kinds = kinds;
+        this.numbers = numbers;
+        this.values = values;
+        this.size = size;
+    }
+
+    public int size() { return size; }
+
+    public PatchOp op(int i) { return ops[i]; }
+
+    public PatchPath pathTemplate(int i) { return paths[i]; }
+
+    public int pathIndex(int i) { return indexes[i]; }
+
+    /** The materialized JSON Pointer of operation {@code i}. */
+    public String path(int i) { return paths[i].pointer(indexes[i]); }
+
+    public ValueKind valueKind(int i) { return kinds[i]; }
+
+    /** The value of a {@link ValueKind#NUMBER} operation. */
+    public double number(int i) { return numbers[i]; }
+
+    /** The value of a {@link ValueKind#TEXT} operation. */
+    public String text(int i) { return (String) values[i]; }
+
+    /** The value of a {@link ValueKind#NODE} operation. */
+    public JsonNode node(int i) { return (JsonNode) values[i]; }
+
+    /** The value of a {@link ValueKind#PROJECTIONS} operation. */
+    @SuppressWarnings("unchecked")
+    public List<Projection> projections(int i) { return (List<Projection>) values[i]; }
+}
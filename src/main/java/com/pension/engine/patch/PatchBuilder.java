@@ -1,75 +1,99 @@
 package com.pension.engine.patch;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pension.engine.model.state.Projection;
+import com.pension.engine.patch.Patch.ValueKind;
 
-public final class PatchBuilder {
+import java.util.Arrays;
+import java.util.List;
 
-    private static final JsonNodeFactory NF = JsonNodeFactory.instance;
+/** Accumulates operations into a compact {@link Patch}; see {@link PatchPath} for the path templates. */
+public final class PatchBuilder {
 
-    private final ArrayNode ops;
+    private PatchOp[] ops;
+    private PatchPath[] paths;
+    private int[] indexes;
+    private ValueKind[] kinds;
+    private double[] numbers;
+    private Object[] values;
+    private int size;
 
     public PatchBuilder() {
-        this.ops = NF.arrayNode();
+        this(4);
     }
 
     public PatchBuilder(int capacity) {
-        this.ops = NF.arrayNode(capacity);
+        capacity = Math.max(capacity, 1);
+        ops = new PatchOp[capacity];
+        paths = new PatchPath[capacity];
+        indexes = new int[capacity];
+        kinds = new ValueKind[capacity];
+        numbers = new double[capacity];
+        values = new Object[capacity];
     }
 
-    public PatchBuilder add(String path, JsonNode value) {
-        ObjectNode op = NF.objectNode();
-        op.put("op", "add");
-        op.put("path", path);
-        op.set("value", value);
-        ops.add(op);
-        return this;
+    public PatchBuilder add(PatchPath path, JsonNode value) {
+        return append(PatchOp.ADD, path, 0, ValueKind.NODE, 0, value);
     }
 
-    public PatchBuilder add(String path, String value) {
-        return add(path, NF.textNode(value));
+    public PatchBuilder remove(PatchPath path, int index) {
+        return append(PatchOp.REMOVE, path, index, ValueKind.NONE, 0, null);
     }
 
-    public PatchBuilder add(String path, double value) {
-        return add(path, NF.numberNode(value));
+    public PatchBuilder replace(PatchPath path, JsonNode value) {
+        return append(PatchOp.REPLACE, path, 0, ValueKind.NODE, 0, value);
     }
 
-    public PatchBuilder remove(String path) {
-        ObjectNode op = NF.objectNode();
-        op.put("op", "remove");
-        op.put("path", path);
-        ops.add(op);
-        return this;
+    public PatchBuilder replaceWithNull(PatchPath path) {
+        return append(PatchOp.REPLACE, path, 0, ValueKind.NULL, 0, null);
     }
 
-    public PatchBuilder replace(String path, JsonNode value) {
-        ObjectNode op = NF.objectNode();
-        op.put("op", "replace");
-        op.put("path", path);
-        op.set("value", value);
-        ops.add(op);
-        return this;
+    public PatchBuilder replace(PatchPath path, String value) {
+        return append(PatchOp.REPLACE, path, 0, value == null ? ValueKind.NULL : ValueKind.TEXT, 0, value);
+    }
+
+    public PatchBuilder replace(PatchPath path, int index, double value) {
+        return append(PatchOp.REPLACE, path, index, ValueKind.NUMBER, value, null);
     }
 
-    public PatchBuilder replace(String path, String value) {
-        return replace(path, value == null ? NF.nullNode() : NF.textNode(value));
+    public PatchBuilder replace(PatchPath path, int index, Double value) {
+        return value == null
+                ? append(PatchOp.REPLACE, path, index, ValueKind.NULL, 0, null)
+                : append(PatchOp.REPLACE, path, index, ValueKind.NUMBER, value, null);
     }
 
-    public PatchBuilder replace(String path, double value) {
-        return replace(path, NF.numberNode(value));
+    /** Replaces with a projection list, written as its JSON array; {@code null} writes JSON null. */
+    public PatchBuilder replace(PatchPath path, int index, List<Projection> projections) {
+        return append(PatchOp.REPLACE, path, index,
+                projections == null ? ValueKind.NULL : ValueKind.PROJECTIONS, 0, projections);
     }
 
-    public PatchBuilder replace(String path, Double value) {
-        return replace(path, value == null ? NF.nullNode() : NF.numberNode(value));
+    /** The accumulated patch; the builder must not be used afterwards. */
+    public Patch build() {
+        return new Patch(ops, paths, indexes, kinds, numbers, values, size);
     }
 
-    public ArrayNode build() {
-        return ops;
+    public static Patch emptyPatch() {
+        return Patch.EMPTY;
     }
 
-    public static ArrayNode emptyPatch() {
-        return NF.arrayNode();
+    private PatchBuilder append(PatchOp op, PatchPath path, int index, ValueKind kind, double number, Object value) {
+        if (size == ops.length) {
+            int capacity = size << 1;
+            ops = Arrays.copyOf(ops, capacity);
+            paths = Arrays.copyOf(paths, capacity);
+            indexes = Arrays.copyOf(indexes, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        ops[size] = op;
+        paths[size] = path;
+        indexes[size] = index;
+        kinds[size] = kind;
+        numbers[size] = number;
+        values[size] = value;
+        size++;
+        return this;
     }
 }
@@ -0,0 +1,18 @@
+package com.pension.engine.patch;
+
+/** RFC 6902 operations the handlers emit. */
+public enum PatchOp {
+
+    ADD("add"),
+    REMOVE("remove"),
+    REPLACE("replace");
+
+    private final String jsonName;
+
+    PatchOp(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /** The {@code op} member value. */
+    public String jsonName() { return jsonName; }
+}
@@ -0,0 +1,67 @@
+package com.pension.engine.patch;
+
+/**
+ * JSON Pointer templates of the situation paths the handlers patch. Indexed templates are
+ * {@code prefix + policyIndex + suffix}; the pointer is only materialized when the patch is written.
+ */
+public enum PatchPath {
+
+    DOSSIER("/dossier"),
+    DOSSIER_STATUS("/dossier/status"),
+    DOSSIER_RETIREMENT_DATE("/dossier/retirement_date"),
+    POLICIES_END("/dossier/policies/-"),
+    POLICY("/dossier/policies/", ""),
+    POLICY_SALARY("/dossier/policies/", "/salary"),
+    POLICY_ATTAINABLE_PENSION("/dossier/policies/", "/attainable_pension"),
+    POLICY_PROJECTIONS("/dossier/policies/", "/projections");
+
+    private final String prefix;
+    private final String suffix;
+    private final boolean indexed;
+
+    PatchPath(String pointer) {
+        this.prefix = pointer;
+        this.suffix = "";
+        this.indexed = false;
+    }
+
+    PatchPath(String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.indexed = true;
+    }
+
+    public boolean isIndexed() { return indexed; }
+
+    /** The JSON Pointer for {@code index}, which is ignored by non-indexed templates. */
+    public String pointer(int index) {
+        return indexed ? prefix + index + suffix : prefix;
+    }
+
+    /** Writes the pointer for {@code index} into {@code buf} and returns its length. */
+    int pointer(int index, char[] buf) {
+        int len = prefix.length();
+        prefix.getChars(0, len, buf, 0);
+        if (!indexed) {
+            return len;
+        }
+        len = writeIndex(index, buf, len);
+        suffix.getChars(0, suffix.length(), buf, len);
+        return len + suffix.length();
+    }
+
+    /** Max pointer length for any non-negative int index. */
+    static final int MAX_POINTER_LENGTH = 64;
+
+    private static int writeIndex(int index, char[] buf, int pos) {
+        int digits = 1;
+        for (int v = index; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1, v = index; i >= pos; i--, v /= 10) {
+            buf[i] = (char) ('0' + v % 10);
+        }
+        return end;
+    }
+}
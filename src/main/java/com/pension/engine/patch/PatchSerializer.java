@@ -0,0 +1,64 @@
+package com.pension.engine.patch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pension.engine.model.state.Projection;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Writes a {@link Patch} as an RFC 6902 JSON array straight to the generator. */
+final class PatchSerializer extends StdSerializer<Patch> {
+
+    PatchSerializer() {
+        super(Patch.class);
+    }
+
+    @Override
+    public void serialize(Patch patch, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int size = patch.size();
+        gen.writeStartArray(patch, size);
+        char[] pointer = size > 0 ? new char[PatchPath.MAX_POINTER_LENGTH] : null;
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            gen.writeStringField("op", patch.op(i).jsonName());
+            gen.writeFieldName("path");
+            gen.writeString(pointer, 0, patch.pathTemplate(i).pointer(patch.pathIndex(i), pointer));
+            switch (patch.valueKind(i)) {
+                case NONE -> { }
+                case NULL -> gen.writeNullField("value");
+                case NUMBER -> gen.writeNumberField("value", patch.number(i));
+                case TEXT -> gen.writeStringField("value", patch.text(i));
+                case NODE -> {
+                    gen.writeFieldName("value");
+                    provider.defaultSerializeValue(patch.node(i), gen);
+                }
+                case PROJECTIONS -> {
+                    gen.writeFieldName("value");
+                    writeProjections(patch.projections(i), gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeProjections(List<Projection> projections, JsonGenerator gen) throws IOException {
+        int size = projections.size();
+        gen.writeStartArray(projections, size);
+        for (int i = 0; i < size; i++) {
+            Projection projection = projections.get(i);
+            gen.writeStartObject();
+            gen.writeFieldName("date");
+            if (projection.getDateLabel() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeString(projection.getDateLabel());
+            }
+            gen.writeNumberField("projected_pension", projection.getProjectedPension());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,83 @@
+package com.pension.engine.scheme;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling the scheme registry while it is failing.
+ *
+ * <p>Closed, every call is allowed and {@code failureThreshold} consecutive failures open the breaker. Open, calls
+ * are rejected without touching the network. Once {@code openNanos} have passed the breaker is half-open and lets
+ * exactly one probe through: its success closes the breaker, its failure opens it for another period.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+        this.clock = clock;
+    }
+
+    /** Whether a call may go out now; a {@code true} must be followed by {@link #onSuccess} or {@link #onFailure}. */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    probing = true;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                if (!probing) {
+                    probing = true;
+                    return true;
+                }
+                break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    synchronized void onFailure() {
+        if (state == State.OPEN) {
+            // A call that started before the breaker opened
+            return;
+        }
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            opened.increment();
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            consecutiveFailures = 0;
+            probing = false;
+        }
+    }
+
+    synchronized State state() { return state; }
+
+    long rejected() { return rejected.sum(); }
+
+    long opened() { return opened.sum(); }
+}
@@ -0,0 +1,236 @@
+package com.pension.engine.scheme;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded accrual-rate cache with a TTL, refresh-ahead and single-flight loads.
+ *
+ * <p>Every entry is a future. A miss installs a new in-flight entry atomically, so concurrent misses for the same
+ * scheme share one load (counted as coalesced) instead of each issuing a request. A hit inside the refresh-ahead
+ * window still returns the cached rate but starts one background reload; once it succeeds, the reloaded entry
+ * replaces the old one. An expired entry is reloaded like a miss. A failed load hands its waiters the fallback
+ * rate, which is then cached as a negative entry for the short negative TTL, so a failing scheme is not retried
+ * by every request. Negative entries are never refreshed ahead.
+ *
+ * <p>When the cache is over capacity, the entry loaded longest ago is evicted.
+ */
+final class SchemeCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long negativeTtlNanos;
+    private final Function<String, CompletableFuture<Double>> loader;
+    private final double fallbackRate;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    private static final class Entry {
+        final CompletableFuture<Double> rate;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile boolean negative;
+        // Written before rate completes, so they are visible to anyone who sees it done
+        volatile long loadedAt;
+        volatile long refreshAt;
+        volatile long expiresAt;
+
+        Entry(CompletableFuture<Double> rate) {
+            this.rate = rate;
+        }
+    }
+
+    /**
+     * @param loader       fetches one scheme's rate; a future that fails counts as a failed load
+     * @param negativeTtlNanos how long a failed load's fallback rate is cached; {@code 0} retries on the next get
+     * @param fallbackRate     the rate failed loads complete with
+     */
+    SchemeCache(int maxEntries, long ttlNanos, long refreshAheadNanos, long negativeTtlNanos,
+                Function<String, CompletableFuture<Double>> loader, double fallbackRate, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttlNanos;
+        this.refreshAheadNanos = Math.min(refreshAheadNanos, ttlNanos);
+        this.negativeTtlNanos = negativeTtlNanos;
+        this.loader = loader;
+        this.fallbackRate = fallbackRate;
+        this.clock = clock;
+    }
+
+    /** The scheme's rate: completed on a hit, otherwise the in-flight load. Never fails. */
+    CompletableFuture<Double> get(String schemeId) {
+        Entry entry = entries.get(schemeId);
+        Entry stale = null;
+        if (entry != null) {
+            if (!entry.rate.isDone()) {
+                coalesced.increment();
+                return entry.rate;
+            }
+            long now = clock.getAsLong();
+            if (now - entry.expiresAt < 0) {
+                if (entry.negative) negativeHits.increment(); else hits.increment();
+                if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                    refresh(schemeId, entry);
+                }
+                return entry.rate;
+            }
+            stale = entry;
+        }
+        return load(schemeId, stale);
+    }
+
+    private CompletableFuture<Double> load(String schemeId, Entry stale) {
+        Entry[] created = new Entry[1];
+        Entry current = entries.compute(schemeId, (id, existing) -> {
+            if (existing != null && existing != stale) {
+                return existing;
+            }
+            created[0] = new Entry(new CompletableFuture<>());
+            return created[0];
+        });
+        if (created[0] == null) {
+            // Another thread installed a load or a fresh entry first
+            if (current.rate.isDone()) hits.increment(); else coalesced.increment();
+            return current.rate;
+        }
+        misses.increment();
+        Entry entry = created[0];
+        fetch(schemeId).whenComplete((rate, failure) -> {
+            if (failure == null) {
+                stamp(entry);
+                entry.rate.complete(rate);
+            } else {
+                failures.increment();
+                if (negativeTtlNanos > 0) {
+                    long now = clock.getAsLong();
+                    entry.negative = true;
+                    entry.loadedAt = now;
+                    entry.refreshAt = now + negativeTtlNanos;
+                    entry.expiresAt = now + negativeTtlNanos;
+                } else {
+                    entries.remove(schemeId, entry);
+                }
+                entry.rate.complete(fallbackRate);
+            }
+        });
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+        return entry.rate;
+    }
+
+    private void refresh(String schemeId, Entry entry) {
+        refreshes.increment();
+        fetch(schemeId).whenComplete((rate, failure) -> {
+            if (failure == null) {
+                Entry reloaded = new Entry(CompletableFuture.completedFuture(rate));
+                stamp(reloaded);
+                entries.replace(schemeId, entry, reloaded);
+            } else {
+                // Keep serving the current rate until it expires
+                failures.increment();
+            }
+        });
+    }
+
+    private CompletableFuture<Double> fetch(String schemeId) {
+        try {
+            return loader.apply(schemeId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void stamp(Entry entry) {
+        long now = clock.getAsLong();
+        entry.loadedAt = now;
+        entry.refreshAt = now + ttlNanos - refreshAheadNanos;
+        entry.expiresAt = now + ttlNanos;
+    }
+
+    /**
+     * Installs a rate loaded elsewhere, such as from a snapshot, that expires in {@code remainingNanos}. Skipped if
+     * the scheme is already cached, the rate has expired or the cache is full.
+     */
+    void preload(String schemeId, double rate, long remainingNanos) {
+        if (remainingNanos <= 0 || entries.size() >= maxEntries) {
+            return;
+        }
+        long remaining = Math.min(remainingNanos, ttlNanos);
+        long now = clock.getAsLong();
+        Entry entry = new Entry(CompletableFuture.completedFuture(rate));
+        entry.expiresAt = now + remaining;
+        entry.refreshAt = entry.expiresAt - refreshAheadNanos;
+        entry.loadedAt = entry.expiresAt - ttlNanos;
+        entries.putIfAbsent(schemeId, entry);
+    }
+
+    /** The rate cached for a scheme, with the nanoseconds until it expires. */
+    record Fresh(String schemeId, double rate, long remainingNanos) {}
+
+    /** Every successfully loaded, unexpired rate; negative entries and loads in flight are left out. */
+    List<Fresh> fresh() {
+        long now = clock.getAsLong();
+        List<Fresh> fresh = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.rate.isDone() && !entry.negative && entry.expiresAt - now > 0) {
+                fresh.add(new Fresh(e.getKey(), entry.rate.join(), entry.expiresAt - now));
+            }
+        }
+        return fresh;
+    }
+
+    private void evict() {
+        while (entries.size() > maxEntries) {
+            String oldestId = null;
+            Entry oldest = null;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry candidate = e.getValue();
+                // In-flight loads stay, or their waiters would be detached from the cache
+                if (candidate.rate.isDone() && (oldest == null || candidate.loadedAt - oldest.loadedAt < 0)) {
+                    oldestId = e.getKey();
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldestId, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    int size() { return entries.size(); }
+
+    int maxEntries() { return maxEntries; }
+
+    long hits() { return hits.sum(); }
+
+    long misses() { return misses.sum(); }
+
+    long coalesced() { return coalesced.sum(); }
+
+    long refreshes() { return refreshes.sum(); }
+
+    long evictions() { return evictions.sum(); }
+
+    long failures() { return failures.sum(); }
+
+    long negativeHits() { return negativeHits.sum(); }
+}
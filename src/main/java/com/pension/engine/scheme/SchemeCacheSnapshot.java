@@ -0,0 +1,107 @@
+package com.pension.engine.scheme;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk copy of the scheme cache's successfully loaded rates, so a restarted instance starts warm.
+ *
+ * <p>Little-endian layout: magic {@code "SCH1"}, entry count, then per entry the UTF-8 scheme id (length-prefixed
+ * with an unsigned short), the rate as a double and its expiry in epoch milliseconds. Expiry is wall-clock time
+ * because the cache's own clock does not survive a restart. The file is memory-mapped to read, and written to a
+ * sibling temporary file that atomically replaces it, so a reader never sees a partial snapshot.
+ */
+final class SchemeCacheSnapshot {
+
+    private static final int MAGIC = 0x31484353; // "SCH1"
+    private static final int MAX_ID_BYTES = 0xFFFF;
+
+    record Entry(String schemeId, double rate, long expiresAtMillis) {}
+
+    private SchemeCacheSnapshot() {}
+
+    /** Entries in {@code file}; empty if it does not exist, is not a snapshot or is truncated. */
+    static List<Entry> read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 || size > Integer.MAX_VALUE) {
+                return List.of();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                return List.of();
+            }
+            int count = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(Math.min(Math.max(count, 0), 4096));
+            byte[] id = new byte[64];
+            for (int i = 0; i < count; i++) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length > id.length) {
+                    id = new byte[length];
+                }
+                buffer.get(id, 0, length);
+                String schemeId = new String(id, 0, length, StandardCharsets.UTF_8);
+                entries.add(new Entry(schemeId, buffer.getDouble(), buffer.getLong()));
+            }
+            return entries;
+        } catch (BufferUnderflowException e) {
+            return List.of();
+        }
+    }
+
+    /** Replaces {@code file} with {@code entries}; ids longer than 65535 UTF-8 bytes are left out. */
+    static void write(Path file, List<Entry> entries) throws IOException {
+        List<byte[]> ids = new ArrayList<>(entries.size());
+        int size = 8;
+        for (Entry entry : entries) {
+            byte[] id = entry.schemeId().getBytes(StandardCharsets.UTF_8);
+            ids.add(id);
+            if (id.length <= MAX_ID_BYTES) {
+                size += 2 + id.length + 16;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(0);
+        int count = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            byte[] id = ids.get(i);
+            if (id.length > MAX_ID_BYTES) {
+                continue;
+            }
+            Entry entry = entries.get(i);
+            buffer.putShort((short) id.length).put(id).putDouble(entry.rate()).putLong(entry.expiresAtMillis());
+            count++;
+        }
+        buffer.putInt(4, count).flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
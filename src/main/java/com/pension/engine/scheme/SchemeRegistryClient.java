@@ -2,14 +2,23 @@ package com.pension.engine.scheme;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pension.engine.metrics.MetricsSource;
+import com.pension.engine.metrics.MetricsWriter;
 import com.pension.engine.model.state.Policy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -18,31 +27,142 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Fetches per-scheme accrual rates from the external scheme registry, through a {@link SchemeCache}.
+ * Without a registry URL, handlers use the default rate.
+ *
+ * <p>Registry calls go through a {@link CircuitBreaker}, so an outage costs one fast fallback per scheme instead
+ * of a timeout per request, and a calculation waits at most the latency budget for rates still loading.
+ *
+ * <p>With a snapshot path, cached rates are written to disk periodically and at shutdown, and read back at
+ * startup with their remaining TTL, so a new instance serves cached rates from its first request.
+ */
 @Component
-public class SchemeRegistryClient {
+public class SchemeRegistryClient implements MetricsSource {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double DEFAULT_ACCRUAL_RATE = 0.02;
 
     private final HttpClient httpClient;
     private final String baseUrl;
     private final boolean enabled;
-    private final ConcurrentHashMap<String, Double> cache = new ConcurrentHashMap<>();
+    private final Duration requestTimeout;
+    private final long budgetNanos;
+    private final CircuitBreaker breaker;
+    private final SchemeCache cache;
+    // Null when snapshots are off
+    private final Path snapshotFile;
+    private final ScheduledExecutorService snapshotFlusher;
+    private final int snapshotRestored;
+    private final LongAdder snapshotWrites = new LongAdder();
+    private final LongAdder snapshotFailures = new LongAdder();
 
-    public SchemeRegistryClient(@Value("${scheme.registry.url:}") String baseUrl) {
+    public SchemeRegistryClient(String baseUrl) {
+        this(baseUrl, 1024, 300, 60, 5, 2000, 1000, 5, 10, "", 30);
+    }
+
+    @Autowired
+    public SchemeRegistryClient(@Value("${scheme.registry.url:}") String baseUrl,
+                                @Value("${scheme.cache.max-entries:1024}") int maxEntries,
+                                @Value("${scheme.cache.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${scheme.cache.refresh-ahead-seconds:60}") long refreshAheadSeconds,
+                                @Value("${scheme.cache.negative-ttl-seconds:5}") long negativeTtlSeconds,
+                                @Value("${scheme.registry.timeout-ms:2000}") long timeoutMillis,
+                                @Value("${scheme.registry.budget-ms:1000}") long budgetMillis,
+                                @Value("${scheme.breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${scheme.breaker.open-seconds:10}") long openSeconds,
+                                @Value("${scheme.cache.snapshot-path:}") String snapshotPath,
+                                @Value("${scheme.cache.snapshot-interval-seconds:30}") long snapshotIntervalSeconds) {
         this.baseUrl = baseUrl;
         this.enabled = baseUrl != null && !baseUrl.isEmpty();
+        this.requestTimeout = Duration.ofMillis(timeoutMillis);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
         this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(2))
+                .connectTimeout(requestTimeout)
                 .build();
+        this.breaker = new CircuitBreaker(failureThreshold, TimeUnit.SECONDS.toNanos(openSeconds), System::nanoTime);
+        this.cache = new SchemeCache(maxEntries, TimeUnit.SECONDS.toNanos(ttlSeconds),
+                TimeUnit.SECONDS.toNanos(refreshAheadSeconds), TimeUnit.SECONDS.toNanos(negativeTtlSeconds),
+                this::fetch, DEFAULT_ACCRUAL_RATE, System::nanoTime);
+
+        if (enabled && snapshotPath != null && !snapshotPath.isEmpty()) {
+            this.snapshotFile = Path.of(snapshotPath);
+            this.snapshotRestored = restoreSnapshot();
+            this.snapshotFlusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "scheme-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, snapshotIntervalSeconds);
+            snapshotFlusher.scheduleWithFixedDelay(this::flushSnapshot, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.snapshotFile = null;
+            this.snapshotRestored = 0;
+            this.snapshotFlusher = null;
+        }
+    }
+
+    private int restoreSnapshot() {
+        try {
+            List<SchemeCacheSnapshot.Entry> entries = SchemeCacheSnapshot.read(snapshotFile);
+            long nowMillis = System.currentTimeMillis();
+            for (SchemeCacheSnapshot.Entry entry : entries) {
+                cache.preload(entry.schemeId(), entry.rate(),
+                        TimeUnit.MILLISECONDS.toNanos(entry.expiresAtMillis() - nowMillis));
+            }
+            return cache.size();
+        } catch (IOException e) {
+            // Start cold
+            snapshotFailures.increment();
+            return 0;
+        }
+    }
+
+    private synchronized void flushSnapshot() {
+        List<SchemeCache.Fresh> fresh = cache.fresh();
+        long nowMillis = System.currentTimeMillis();
+        List<SchemeCacheSnapshot.Entry> entries = new ArrayList<>(fresh.size());
+        for (SchemeCache.Fresh entry : fresh) {
+            entries.add(new SchemeCacheSnapshot.Entry(entry.schemeId(), entry.rate(),
+                    nowMillis + TimeUnit.NANOSECONDS.toMillis(entry.remainingNanos())));
+        }
+        try {
+            SchemeCacheSnapshot.write(snapshotFile, entries);
+            snapshotWrites.increment();
+        } catch (IOException | RuntimeException e) {
+            // Keep the previous snapshot; the next flush tries again
+            snapshotFailures.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotFlusher != null) {
+            snapshotFlusher.shutdown();
+            flushSnapshot();
+        }
+        httpClient.close();
     }
 
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * Starts loading {@code schemeId}'s rate without waiting for it, so a later {@link #getAccrualRates} joins
+     * the call already in flight or finds the rate cached.
+     */
+    public void prefetch(String schemeId) {
+        if (enabled) {
+            cache.get(schemeId);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public Map<String, Double> getAccrualRates(List<Policy> policies) {
         if (!enabled) {
@@ -55,59 +175,112 @@ public class SchemeRegistryClient {
             uniqueSchemeIds.add(policy.getSchemeId());
         }
 
-        // Check cache for all, collect missing
+        // Cached rates are taken right away; misses join loads that may already be in flight for other requests
         Map<String, Double> result = new HashMap<>(uniqueSchemeIds.size());
-        List<String> toFetch = new ArrayList<>();
+        List<String> pendingIds = new ArrayList<>();
+        List<CompletableFuture<Double>> pending = new ArrayList<>();
         for (String schemeId : uniqueSchemeIds) {
-            Double cached = cache.get(schemeId);
-            if (cached != null) {
-                result.put(schemeId, cached);
+            CompletableFuture<Double> rate = cache.get(schemeId);
+            if (rate.isDone()) {
+                result.put(schemeId, rate.join());
             } else {
-                toFetch.add(schemeId);
+                pendingIds.add(schemeId);
+                pending.add(rate);
             }
         }
 
-        if (toFetch.isEmpty()) {
+        if (pending.isEmpty()) {
             return result;
         }
 
-        // Fetch missing in parallel using CompletableFuture
-        CompletableFuture<Map.Entry<String, Double>>[] futures = new CompletableFuture[toFetch.size()];
-        for (int i = 0; i < toFetch.size(); i++) {
-            String schemeId = toFetch.get(i);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/schemes/" + schemeId))
-                    .timeout(Duration.ofSeconds(2))
-                    .GET()
-                    .build();
-
-            futures[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenApply(response -> {
-                        try {
-                            JsonNode node = MAPPER.readTree(response.body());
-                            double accrualRate = node.path("accrual_rate").asDouble(0.02);
-                            return Map.entry(schemeId, accrualRate);
-                        } catch (Exception e) {
-                            return Map.entry(schemeId, 0.02);
-                        }
-                    })
-                    .exceptionally(e -> Map.entry(schemeId, 0.02));
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            // Over budget: schemes still loading use the default; their loads complete into the cache later
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            result.put(pendingIds.get(i), pending.get(i).getNow(DEFAULT_ACCRUAL_RATE));
+        }
+        return result;
+    }
+
+    /**
+     * One registry call. Transport errors and non-2xx answers fail the future, and so does an open breaker.
+     * Only transport errors and 5xx answers count against the breaker: a 4xx means the registry is up.
+     */
+    private CompletableFuture<Double> fetch(String schemeId) {
+        // Built before acquiring, so a request that cannot be built never holds the half-open probe
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/schemes/" + encodePathSegment(schemeId)))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Scheme registry circuit is open"));
         }
 
+        CompletableFuture<HttpResponse<String>> call;
         try {
-            CompletableFuture.allOf(futures).get(3, TimeUnit.SECONDS);
-            for (CompletableFuture<Map.Entry<String, Double>> f : futures) {
-                Map.Entry<String, Double> entry = f.get();
-                cache.put(entry.getKey(), entry.getValue());
-                result.put(entry.getKey(), entry.getValue());
-            }
-        } catch (Exception e) {
-            // Timeout or error - default all unfetched to 0.02
-            for (String schemeId : toFetch) {
-                result.putIfAbsent(schemeId, 0.02);
-            }
+            call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            return CompletableFuture.failedFuture(e);
         }
+        return call
+                .whenComplete((response, failure) -> {
+                    if (failure == null && response.statusCode() < 500) {
+                        breaker.onSuccess();
+                    } else {
+                        breaker.onFailure();
+                    }
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Scheme registry answered " + response.statusCode());
+                    }
+                    try {
+                        JsonNode node = MAPPER.readTree(response.body());
+                        return node.path("accrual_rate").asDouble(DEFAULT_ACCRUAL_RATE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
 
-        return result;
+    /** Percent-encodes a request-supplied scheme id as one path segment; spaces become {@code %20}, not {@code +}. */
+    private static String encodePathSegment(String schemeId) {
+        return URLEncoder.encode(schemeId, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter out) {
+        out.gauge("scheme_cache_entries", "Scheme accrual rates currently cached", cache.size())
+                .gauge("scheme_cache_max_entries", "Maximum cached scheme accrual rates", cache.maxEntries())
+                .counter("scheme_cache_hits_total", "Scheme lookups answered from the cache", cache.hits())
+                .counter("scheme_cache_misses_total", "Scheme lookups that started a registry call", cache.misses())
+                .counter("scheme_cache_coalesced_total", "Scheme lookups that joined a registry call already in flight",
+                        cache.coalesced())
+                .counter("scheme_cache_refreshes_total", "Background reloads of entries close to expiry",
+                        cache.refreshes())
+                .counter("scheme_cache_evictions_total", "Cached scheme rates evicted to stay within capacity",
+                        cache.evictions())
+                .counter("scheme_cache_load_failures_total", "Registry calls that failed; the default rate was used",
+                        cache.failures())
+                .counter("scheme_cache_negative_hits_total",
+                        "Scheme lookups answered with the default rate cached after a failed call", cache.negativeHits())
+                .gauge("scheme_registry_circuit_state", "Registry circuit breaker: 0 closed, 1 open, 2 half-open",
+                        breaker.state().ordinal())
+                .counter("scheme_registry_circuit_opened_total", "Times the registry circuit breaker opened",
+                        breaker.opened())
+                .counter("scheme_registry_circuit_rejected_total",
+                        "Registry calls skipped because the circuit breaker was open", breaker.rejected());
+        if (snapshotFile != null) {
+            out.gauge("scheme_cache_snapshot_restored_entries", "Scheme rates restored from the snapshot at startup",
+                            snapshotRestored)
+                    .counter("scheme_cache_snapshot_writes_total", "Scheme cache snapshots written",
+                            snapshotWrites.sum())
+                    .counter("scheme_cache_snapshot_failures_total", "Scheme cache snapshots that failed to read or write",
+                            snapshotFailures.sum());
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.pension.engine.grpc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.engine.EngineExecutor;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PensionCalculationServiceImplTest {
+
+    private final EngineExecutor executor = new EngineExecutor(1, 16);
+    private final PensionCalculationServiceImpl service = new PensionCalculationServiceImpl(
+            new CalculationEngine(new SchemeRegistryClient(""), false, 1, Long.MAX_VALUE, 256, false),
+            new ObjectMapper(), executor, 1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class Recorder implements StreamObserver<CalculationResponse> {
+        final List<CalculationResponse> responses = new ArrayList<>();
+        Throwable error;
+        boolean completed;
+
+        @Override public void onNext(CalculationResponse response) { responses.add(response); }
+        @Override public void onError(Throwable t) { error = t; }
+        @Override public void onCompleted() { completed = true; }
+    }
+
+    private static Mutation.Builder mutation(String id, String definitionName) {
+        return Mutation.newBuilder()
+                .setMutationId(id)
+                .setMutationDefinitionName(definitionName)
+                .setMutationType(definitionName.equals("create_dossier") ? "DOSSIER_CREATION" : "DOSSIER")
+                .setActualAt("2025-01-01");
+    }
+
+    private static Mutation.Builder createDossier(String id, String definitionName) {
+        return mutation(id, definitionName).setCreateDossier(CreateDossierProperties.newBuilder()
+                .setDossierId("D1").setPersonId("P1").setName("Jane").setBirthDate("1960-06-15"));
+    }
+
+    private Recorder calculate(Mutation.Builder... mutations) {
+        CalculationInstructions.Builder instructions = CalculationInstructions.newBuilder();
+        for (Mutation.Builder mutation : mutations) {
+            instructions.addMutations(mutation);
+        }
+        Recorder recorder = new Recorder();
+        service.calculate(CalculationRequest.newBuilder()
+                .setTenantId("tenant")
+                .setCalculationInstructions(instructions)
+                .build(), recorder);
+        return recorder;
+    }
+
+    @Test
+    void propertiesOfTheNamedDefinitionAreCalculated() {
+        Recorder recorder = calculate(createDossier("m1", "create_dossier"),
+                mutation("m2", "add_policy").setAddPolicy(AddPolicyProperties.newBuilder()
+                        .setSchemeId("S1").setEmploymentStartDate("2000-01-01").setSalary(50_000).setPartTimeFactor(1)));
+
+        assertThat(recorder.error).isNull();
+        assertThat(recorder.completed).isTrue();
+        assertThat(recorder.responses).singleElement().satisfies(response -> {
+            assertThat(response.getCalculationMetadata().getCalculationOutcome()).isEqualTo("SUCCESS");
+            assertThat(response.getCalculationResult().getMutationsCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void propertiesOfAnotherDefinitionAreAnInvalidArgument() {
+        Recorder recorder = calculate(createDossier("m1", "create_dossier"), createDossier("m2", "add_policy"));
+
+        assertThat(recorder.responses).isEmpty();
+        assertThat(recorder.error).isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+            assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+            assertThat(e.getStatus().getDescription())
+                    .isEqualTo("Mutation m2 is add_policy but carries create_dossier properties");
+        });
+    }
+
+    @Test
+    void unknownDefinitionWithTypedPropertiesIsAnUnknownMutation() {
+        Recorder recorder = calculate(createDossier("m1", "create_dossier"), createDossier("m2", "merge_dossier"));
+
+        assertThat(recorder.error).isNull();
+        assertThat(recorder.responses).singleElement().satisfies(response -> {
+            assertThat(response.getCalculationMetadata().getCalculationOutcome()).isEqualTo("FAILURE");
+            assertThat(response.getCalculationResult().getMessages(0).getCode()).isEqualTo("UNKNOWN_MUTATION");
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.pension.engine.handler;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pension.engine.config.JacksonConfig;
+import com.pension.engine.engine.CalculationEngine;
+import com.pension.engine.model.response.CalculationResponse;
+import com.pension.engine.scheme.SchemeRegistryClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingCalculationReaderTest {
+
+    private final ObjectMapper mapper = new JacksonConfig().objectMapper();
+    private final StreamingCalculationReader reader = new StreamingCalculationReader(
+            new CalculationEngine(new SchemeRegistryClient(""), false, 1, Long.MAX_VALUE, 256, false), mapper);
+
+    private byte[] testCase(String name) throws IOException {
+        JsonNode testCase = mapper.readTree(Path.of("test-cases", name).toFile());
+        return mapper.writeValueAsBytes(testCase.get("request"));
+    }
+
+    private JsonNode result(CalculationResponse response) {
+        return mapper.valueToTree(response.getCalculationResult());
+    }
+
+    private CalculationResponse read(byte[] json, int... splits) throws IOException {
+        StreamingCalculationReader.Feed feed = reader.open(true);
+        int from = 0;
+        for (int to : splits) {
+            feed.feed(ByteBuffer.wrap(Arrays.copyOfRange(json, from, to)));
+            from = to;
+        }
+        feed.feed(ByteBuffer.wrap(Arrays.copyOfRange(json, from, json.length)));
+        return feed.finish();
+    }
+
+    private CalculationResponse read(String json) throws IOException {
+        return reader.read(json, true);
+    }
+
+    @Test
+    void everySplitOfTheBodyReadsLikeTheWholeBody() throws IOException {
+        byte[] json = testCase("C07-full-happy-path.json");
+        JsonNode expected = result(read(new String(json, StandardCharsets.UTF_8)));
+        assertThat(expected.get("mutations")).hasSize(5);
+
+        for (int split = 0; split <= json.length; split++) {
+            assertThat(result(read(json, split))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void bodyFedByteByByteReadsLikeTheWholeBody() throws IOException {
+        byte[] json = testCase("B01-project-future-benefits.json");
+        JsonNode expected = result(read(new String(json, StandardCharsets.UTF_8)));
+
+        int[] everyByte = new int[json.length - 1];
+        Arrays.setAll(everyByte, i -> i + 1);
+        assertThat(result(read(json, everyByte))).isEqualTo(expected);
+    }
+
+    @Test
+    void criticalFailureSettlesTheRequestBeforeTheBodyEnds() throws IOException {
+        StreamingCalculationReader.Feed feed = reader.open(true);
+        feed.feed(ByteBuffer.wrap(("""
+                {"tenant_id":"t","calculation_instructions":{"mutations":[
+                  {"mutation_id":"m1","mutation_definition_name":"add_policy","mutation_type":"DOSSIER",
+                   "actual_at":"2020-01-01","mutation_properties":{"scheme_id":"S","employment_start_date":"2000-01-01",
+                   "salary":50000,"part_time_factor":1}},
+                  {"mutation_id":"m2\"""").getBytes(StandardCharsets.UTF_8)));
+        assertThat(feed.isDone()).isTrue();
+
+        // The rest of the body is not read, so it does not have to be valid
+        feed.feed(ByteBuffer.wrap("not json".getBytes(StandardCharsets.UTF_8)));
+        CalculationResponse response = feed.finish();
+        assertThat(response.getCalculationMetadata().getCalculationOutcome()).isEqualTo("FAILURE");
+        assertThat(response.getCalculationResult().getMutations()).hasSize(1);
+    }
+
+    @Test
+    void mutationsBeforeTheTenantAreHeldBack() throws IOException {
+        CalculationResponse response = read("""
+                {"calculation_instructions":{"mutations":[
+                  {"mutation_id":"m1","mutation_definition_name":"create_dossier","mutation_type":"DOSSIER_CREATION",
+                   "actual_at":"2020-01-01","mutation_properties":{"dossier_id":"D1","person_id":"P1","name":"Jane",
+                   "birth_date":"1960-06-15"}}]},
+                 "ignored":{"nested":[1,2,{"x":null}]},
+                 "tenant_id":"t"}""");
+
+        assertThat(response.getCalculationMetadata().getTenantId()).isEqualTo("t");
+        assertThat(response.getCalculationMetadata().getCalculationOutcome()).isEqualTo("SUCCESS");
+        assertThat(response.getCalculationResult().getMutations()).hasSize(1);
+    }
+
+    @Test
+    void malformedRequestsAreRejected() {
+        assertThatThrownBy(() -> read(""))
+                .isInstanceOf(JsonParseException.class).hasMessageStartingWith("Expected a JSON object");
+        assertThatThrownBy(() -> read("[]"))
+                .isInstanceOf(JsonParseException.class).hasMessageStartingWith("Expected a JSON object");
+        assertThatThrownBy(() -> read("{\"tenant_id\":\"t\",\"calculation_instructions\":{\"mutations\":["))
+                .isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> read("{\"tenant_id\":\"t\",\"calculation_instructions\":[]}"))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageStartingWith("Expected calculation_instructions to be an object");
+        assertThatThrownBy(() -> read("{\"tenant_id\":\"t\",\"calculation_instructions\":{\"mutations\":{}}}"))
+                .isInstanceOf(JsonParseException.class).hasMessageStartingWith("Expected an array of mutations");
+        assertThatThrownBy(() -> read("{\"calculation_instructions\":{\"mutations\":[null]}}"))
+                .isInstanceOf(StreamingCalculationReader.InvalidRequestException.class)
+                .hasMessage("tenant_id is required");
+        assertThatThrownBy(() -> read("{\"tenant_id\":\"t\",\"calculation_instructions\":{\"mutations\":[]}}"))
+                .isInstanceOf(StreamingCalculationReader.InvalidRequestException.class)
+                .hasMessage("At least one mutation is required");
+    }
+}
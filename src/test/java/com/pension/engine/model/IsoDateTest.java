@@ -0,0 +1,113 @@
+package com.pension.engine.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class IsoDateTest {
+
+    private static long expectedEpochDay(String text) {
+        try {
+            return LocalDate.parse(text).toEpochDay();
+        } catch (RuntimeException e) {
+            return IsoDate.INVALID;
+        }
+    }
+
+    private static void assertParsesLikeLocalDate(String text) {
+        long expected = expectedEpochDay(text);
+        assertThat(IsoDate.epochDay(text)).as(text).isEqualTo(expected);
+        byte[] utf8 = ("xx" + text + "yy").getBytes(StandardCharsets.UTF_8);
+        int length = text.getBytes(StandardCharsets.UTF_8).length;
+        assertThat(IsoDate.epochDay(utf8, 2, length)).as(text).isEqualTo(expected);
+
+        Throwable thrown = catchThrowable(() -> LocalDate.parse(text));
+        if (thrown == null) {
+            assertThat(IsoDate.epochDayOrThrow(text)).as(text).isEqualTo(expected);
+        } else {
+            // Error responses carry the exception's message, so it must be LocalDate's own
+            assertThatThrownBy(() -> IsoDate.epochDayOrThrow(text)).as(text)
+                    .isInstanceOf(thrown.getClass())
+                    .hasMessage(thrown.getMessage());
+        }
+    }
+
+    @Test
+    void everyDayFrom1600To2600RoundTripsLikeLocalDate() {
+        byte[] out = new byte[12];
+        long end = LocalDate.of(2600, 12, 31).toEpochDay();
+        for (long day = LocalDate.of(1600, 1, 1).toEpochDay(); day <= end; day++) {
+            String expected = LocalDate.ofEpochDay(day).toString();
+            assertThat(IsoDate.format(day)).isEqualTo(expected);
+            assertThat(IsoDate.format(day, out, 1)).isEqualTo(10);
+            assertThat(new String(out, 1, 10, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            assertThat(IsoDate.epochDay(expected)).isEqualTo(day);
+        }
+    }
+
+    @Test
+    void yearBoundariesAndLeapDaysAcrossTheFourDigitRange() {
+        for (int year = 0; year <= 9999; year++) {
+            for (LocalDate date : List.of(LocalDate.of(year, 1, 1), LocalDate.of(year, 2, 28),
+                    LocalDate.of(year, 3, 1), LocalDate.of(year, 12, 31))) {
+                assertThat(IsoDate.format(date.toEpochDay())).isEqualTo(date.toString());
+                assertThat(IsoDate.epochDay(date.toString())).isEqualTo(date.toEpochDay());
+            }
+            assertParsesLikeLocalDate(String.format("%04d-02-29", year));
+        }
+    }
+
+    @Test
+    void centuryYearsAreLeapOnlyEveryFourHundredYears() {
+        assertThat(IsoDate.epochDay("1600-02-29")).isEqualTo(LocalDate.of(1600, 2, 29).toEpochDay());
+        assertThat(IsoDate.epochDay("1900-02-29")).isEqualTo(IsoDate.INVALID);
+        assertThat(IsoDate.epochDay("2000-02-29")).isEqualTo(LocalDate.of(2000, 2, 29).toEpochDay());
+        assertThat(IsoDate.epochDay("2100-02-29")).isEqualTo(IsoDate.INVALID);
+    }
+
+    @Test
+    void yearsOutsideTheFourDigitRangeFallBackToLocalDate() {
+        for (LocalDate date : List.of(LocalDate.MIN, LocalDate.MAX, LocalDate.of(-1, 12, 31),
+                LocalDate.of(10000, 1, 1), LocalDate.of(-10000, 2, 29))) {
+            long day = date.toEpochDay();
+            assertThat(IsoDate.format(day)).isEqualTo(date.toString());
+            assertThat(IsoDate.format(day, new byte[10], 0)).isEqualTo(-1);
+            assertParsesLikeLocalDate(date.toString());
+        }
+    }
+
+    @Test
+    void invalidInputsAreRejectedLikeLocalDate() {
+        for (String text : List.of("2023-02-30", "2023-04-31", "2023-13-01", "2023-00-10", "2023-01-00",
+                "2023-01-32", "2023-1-01", "2023-01-1", "20230101", "2023/01/01", "2023-01-01 ", " 2023-01-01",
+                "2023-01-01T00:00", "+2023-01-01", "-2023-01-01", "+12023-01-01", "12023-01-01", "02023-01-01",
+                "２０２３-01-01", "2023-0a-01", "abcd-ef-gh", "", "2023-01-0/", "2023-01-0:")) {
+            assertParsesLikeLocalDate(text);
+        }
+    }
+
+    @Test
+    void nullIsInvalidOrThrowsLikeLocalDate() {
+        assertThat(IsoDate.epochDay(null)).isEqualTo(IsoDate.INVALID);
+        assertThatThrownBy(() -> IsoDate.epochDayOrThrow(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void plusMonthsClampsLikeLocalDate() {
+        for (LocalDate date : List.of(LocalDate.of(2020, 1, 31), LocalDate.of(2020, 2, 29), LocalDate.of(2019, 3, 31),
+                LocalDate.of(1999, 12, 31), LocalDate.of(2000, 8, 31), LocalDate.of(0, 1, 15))) {
+            for (int months = -36; months <= 36; months++) {
+                assertThat(IsoDate.plusMonths(date.toEpochDay(), months)).as("%s %+d", date, months)
+                        .isEqualTo(date.plusMonths(months).toEpochDay());
+            }
+        }
+        assertThatThrownBy(() -> IsoDate.plusMonths(LocalDate.MAX.toEpochDay(), 1))
+                .isInstanceOf(java.time.DateTimeException.class);
+    }
+}
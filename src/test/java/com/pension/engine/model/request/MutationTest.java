@@ -0,0 +1,77 @@
+package com.pension.engine.model.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MutationTest {
+
+    /** Properties tokens that count how often they are replayed. */
+    private static final class CountingTokens extends TokenBuffer {
+        int parsers;
+
+        CountingTokens() throws IOException {
+            super(null, false);
+            writeStartObject();
+            writeStringField("dossier_id", "D1");
+            writeStringField("person_id", "P1");
+            writeStringField("name", "Jane");
+            writeStringField("birth_date", "1960-06-15");
+            writeEndObject();
+        }
+
+        @Override
+        public JsonParser asParser() {
+            parsers++;
+            return super.asParser();
+        }
+    }
+
+    private static Mutation mutation(String definitionName, TokenBuffer properties) {
+        Mutation mutation = new Mutation();
+        mutation.setMutationDefinitionName(definitionName);
+        mutation.setMutationProperties(properties);
+        return mutation;
+    }
+
+    @Test
+    void knownDefinitionIsBoundOnce() throws IOException {
+        CountingTokens tokens = new CountingTokens();
+        Mutation mutation = mutation("create_dossier", tokens);
+
+        MutationProperties properties = mutation.getProperties();
+        assertThat(properties).isInstanceOf(CreateDossierProperties.class);
+        assertThat(mutation.getProperties()).isSameAs(properties);
+        assertThat(tokens.parsers).isEqualTo(1);
+    }
+
+    @Test
+    void unknownDefinitionIsNeverParsed() throws IOException {
+        CountingTokens tokens = new CountingTokens();
+        Mutation mutation = mutation("transfer_policy", tokens);
+
+        assertThat(mutation.getProperties()).isNull();
+        assertThat(mutation.getProperties()).isNull();
+        assertThat(tokens.parsers).isZero();
+    }
+
+    @Test
+    void changingTheDefinitionOrTokensBindsAgain() throws IOException {
+        CountingTokens tokens = new CountingTokens();
+        Mutation mutation = mutation("transfer_policy", tokens);
+        assertThat(mutation.getProperties()).isNull();
+
+        mutation.setMutationDefinitionName("create_dossier");
+        assertThat(mutation.getProperties()).isInstanceOf(CreateDossierProperties.class);
+        assertThat(tokens.parsers).isEqualTo(1);
+
+        CountingTokens replaced = new CountingTokens();
+        mutation.setMutationProperties(replaced);
+        assertThat(mutation.getProperties()).isInstanceOf(CreateDossierProperties.class);
+        assertThat(replaced.parsers).isEqualTo(1);
+    }
+}
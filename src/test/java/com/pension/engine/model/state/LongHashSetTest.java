@@ -0,0 +1,56 @@
+package com.pension.engine.model.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void agreesWithHashSetThroughGrowth() {
+        Random random = new Random(3);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            // (scheme ordinal, day) keys like PolicyIndex's, from a range small enough to repeat
+            long key = ((long) random.nextInt(8) << 32) | random.nextInt(5_000);
+            assertThat(set.add(key)).isEqualTo(expected.add(key));
+            assertThat(set.size()).isEqualTo(expected.size());
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long key = ((long) random.nextInt(16) << 32) | random.nextInt(10_000);
+            assertThat(set.contains(key)).isEqualTo(expected.contains(key));
+        }
+    }
+
+    @Test
+    void keysThatCollideInTheLowBitsAreKeptApart() {
+        LongHashSet set = new LongHashSet();
+        for (long i = 0; i < 1_000; i++) {
+            assertThat(set.add(i << 32)).isTrue();
+        }
+        for (long i = 0; i < 1_000; i++) {
+            assertThat(set.contains(i << 32)).isTrue();
+            assertThat(set.contains((i << 32) | 1)).isFalse();
+            assertThat(set.add(i << 32)).isFalse();
+        }
+        assertThat(set.size()).isEqualTo(1_000);
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 100; key++) {
+            set.add(key);
+        }
+        set.clear();
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(5)).isFalse();
+        assertThat(set.add(5)).isTrue();
+    }
+}
@@ -0,0 +1,122 @@
+package com.pension.engine.model.state;
+
+import com.pension.engine.model.IsoDate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolicyIndexTest {
+
+    private static final String[] SCHEMES = {"SCHEME-A", "SCHEME-B", "SCHEME-C", "SCHEME-D"};
+    // Not ISO dates, or valid dates whose text does not sort like the day (signed and five-digit years)
+    private static final String[] UNDATED = {"2020-02-30", "not-a-date", "", "2020-1-5", "+1000000-01-01",
+            "+12023-01-01", "-0001-06-01", "+1000000000-01-01"};
+
+    private static String randomDate(Random random) {
+        if (random.nextInt(10) == 0) {
+            return UNDATED[random.nextInt(UNDATED.length)];
+        }
+        // A narrow range, so duplicate (scheme, date) pairs are common
+        return String.format("%04d-%02d-%02d", 1995 + random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    /** The unindexed filter: string comparison of employment_start_date, as before the index existed. */
+    private static int[] scan(PolicyTable policies, String schemeId, String effectiveBefore) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < policies.size(); i++) {
+            if (schemeId != null && !policies.schemeId(i).equals(schemeId)) continue;
+            if (effectiveBefore != null && policies.employmentStartDate(i).compareTo(effectiveBefore) >= 0) continue;
+            result.add(i);
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void addDetectsDuplicatesLikeASchemeAndDateSet() {
+        Random random = new Random(7);
+        Dossier dossier = new Dossier();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            String schemeId = SCHEMES[random.nextInt(SCHEMES.length)];
+            String start = randomDate(random);
+            boolean unique = dossier.addPolicy("P" + i, schemeId, start, IsoDate.epochDay(start), 1000, 1.0);
+            assertThat(unique).as("%s %s", schemeId, start).isEqualTo(seen.add(schemeId + "|" + start));
+        }
+        assertThat(dossier.getPolicyIndex().size()).isEqualTo(3000);
+    }
+
+    @Test
+    void matchAgreesWithALinearScan() {
+        Random random = new Random(11);
+        Dossier dossier = new Dossier();
+        PolicyIndex index = dossier.getPolicyIndex();
+        PolicyTable policies = dossier.getPolicies();
+        List<String> filters = new ArrayList<>(List.of("1995-01-01", "1996-06-15", "1998-12-31", "2100-01-01",
+                "1900-01-01", "not-a-date", "1997-02-30", "1997-2-1", "+12023-01-01", "-0001-01-01", "0000-01-01",
+                "9999-12-31"));
+
+        for (int round = 0; round < 20; round++) {
+            // Queries between appends exercise merging new keys into the sorted prefix
+            for (int i = 0; i < 100; i++) {
+                String start = randomDate(random);
+                dossier.addPolicy("P" + policies.size(), SCHEMES[random.nextInt(SCHEMES.length)], start,
+                        IsoDate.epochDay(start), 1000, 1.0);
+            }
+            filters.add(randomDate(random));
+            for (String before : filters) {
+                for (String schemeId : new String[]{null, "SCHEME-A", "SCHEME-C", "UNKNOWN"}) {
+                    assertThat(index.match(schemeId, before, policies)).as("%s before %s", schemeId, before)
+                            .containsExactly(scan(policies, schemeId, before));
+                    assertThat(index.anyMatch(schemeId, before, IsoDate.epochDay(before), policies))
+                            .as("any %s before %s", schemeId, before)
+                            .isEqualTo(scan(policies, schemeId, before).length > 0);
+                }
+            }
+            for (String schemeId : SCHEMES) {
+                assertThat(index.match(schemeId, null, policies)).containsExactly(scan(policies, schemeId, null));
+                assertThat(index.anyMatch(schemeId, null, IsoDate.INVALID, policies)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void anyMatchUsesTheEarliestStartAndComparesUndatedStartsAsStrings() {
+        Dossier dossier = new Dossier();
+        dossier.addPolicy("P1", "SCHEME-A", "2000-01-01", IsoDate.epochDay("2000-01-01"), 1000, 1.0);
+        dossier.addPolicy("P2", "SCHEME-B", "2005-01-01", IsoDate.epochDay("2005-01-01"), 1000, 1.0);
+        dossier.addPolicy("P3", "SCHEME-B", "1999-13-01", IsoDate.epochDay("1999-13-01"), 1000, 1.0);
+        PolicyIndex index = dossier.getPolicyIndex();
+        PolicyTable policies = dossier.getPolicies();
+
+        assertThat(index.anyMatch("SCHEME-A", "2000-01-01", IsoDate.epochDay("2000-01-01"), policies)).isFalse();
+        assertThat(index.anyMatch("SCHEME-A", "2000-01-02", IsoDate.epochDay("2000-01-02"), policies)).isTrue();
+        assertThat(index.anyMatch(null, "1999-06-01", IsoDate.epochDay("1999-06-01"), policies)).isFalse();
+        // Only the undated 1999-13-01 sorts before 2000-01-01
+        assertThat(index.anyMatch("SCHEME-B", "2000-01-01", IsoDate.epochDay("2000-01-01"), policies)).isTrue();
+        assertThat(index.anyMatch(null, "2000-01-01", IsoDate.epochDay("2000-01-01"), policies)).isTrue();
+        assertThat(index.anyMatch("SCHEME-C", null, IsoDate.INVALID, policies)).isFalse();
+        assertThat(index.anyMatch("SCHEME-A", "1999-99", IsoDate.epochDay("1999-99"), policies)).isFalse();
+        assertThat(index.anyMatch(null, "2000-1", IsoDate.epochDay("2000-1"), policies)).isTrue();
+    }
+
+    @Test
+    void schemeOrdinalsFollowFirstAppearance() {
+        Dossier dossier = new Dossier();
+        dossier.addPolicy("P1", "SCHEME-B", "2000-01-01", IsoDate.epochDay("2000-01-01"), 1000, 1.0);
+        dossier.addPolicy("P2", "SCHEME-A", "2000-01-01", IsoDate.epochDay("2000-01-01"), 1000, 1.0);
+        dossier.addPolicy("P3", "SCHEME-B", "2001-01-01", IsoDate.epochDay("2001-01-01"), 1000, 1.0);
+
+        PolicyIndex index = dossier.getPolicyIndex();
+        assertThat(index.schemeOrdinal("SCHEME-B")).isZero();
+        assertThat(index.schemeOrdinal("SCHEME-A")).isEqualTo(1);
+        assertThat(index.schemeOrdinal("SCHEME-C")).isEqualTo(PolicyIndex.UNKNOWN_SCHEME);
+        assertThat(Arrays.stream(new int[]{0, 1, 2}).map(dossier.getPolicies()::schemeOrdinal)).containsExactly(0, 1, 0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.pension.engine.model.state;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectionTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void nullDateIsKeptAndWrittenAsNull() throws Exception {
+        Projection projection = new Projection((String) null, 1250.5);
+
+        assertThat(projection.getDate()).isNull();
+        assertThat(projection.getDateLabel()).isNull();
+        assertThat(mapper.writeValueAsString(projection)).isEqualTo("{\"date\":null,\"projected_pension\":1250.5}");
+    }
+
+    @Test
+    void dateRoundTripsThroughJson() throws Exception {
+        Projection projection = new Projection("2030-01-01", 1250.5);
+
+        Projection read = mapper.readValue(mapper.writeValueAsString(projection), Projection.class);
+        assertThat(read.getDate()).isEqualTo("2030-01-01");
+        assertThat(read.getDateLabel().getValue()).isEqualTo("2030-01-01");
+        assertThat(read.getProjectedPension()).isEqualTo(1250.5);
+
+        read.setDate(null);
+        assertThat(read.getDateLabel()).isNull();
+    }
+}
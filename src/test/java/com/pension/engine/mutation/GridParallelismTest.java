@@ -0,0 +1,82 @@
+package com.pension.engine.mutation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GridParallelismTest {
+
+    private static final int THREADS = 4;
+    private static final int COUNT = 1024;
+
+    private final AtomicLong executing = new AtomicLong(1);
+    private final GridParallelism parallelism = new GridParallelism(THREADS, 1, executing::get);
+
+    private List<int[]> ranges() {
+        List<int[]> ranges = Collections.synchronizedList(new ArrayList<>());
+        parallelism.forEach(COUNT, COUNT, (from, to) -> ranges.add(new int[]{from, to}));
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return ranges;
+    }
+
+    private static void assertCovers(List<int[]> ranges) {
+        int next = 0;
+        for (int[] range : ranges) {
+            assertThat(range[0]).isEqualTo(next);
+            assertThat(range[0] % 64).isZero();
+            next = range[1];
+        }
+        assertThat(next).isEqualTo(COUNT);
+    }
+
+    @Test
+    void idleEngineSplitsAcrossEveryThread() {
+        List<int[]> ranges = ranges();
+
+        assertThat(ranges).hasSize(THREADS);
+        assertCovers(ranges);
+    }
+
+    @Test
+    void otherExecutingCalculationsLeaveFewerThreads() {
+        executing.set(3);
+
+        assertThat(ranges()).hasSize(2);
+    }
+
+    @Test
+    void runsSequentiallyOnceEngineWorkersCoverTheThreads() {
+        executing.set(THREADS);
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+        parallelism.forEach(COUNT, COUNT, (from, to) -> {
+            threads.add(Thread.currentThread());
+            assertThat(from).isZero();
+            assertThat(to).isEqualTo(COUNT);
+        });
+        assertThat(threads).containsExactly(caller);
+    }
+
+    @Test
+    void workBelowThresholdIsNotSplit() {
+        GridParallelism highThreshold = new GridParallelism(THREADS, Long.MAX_VALUE, executing::get);
+        List<int[]> ranges = new ArrayList<>();
+
+        highThreshold.forEach(COUNT, COUNT, (from, to) -> ranges.add(new int[]{from, to}));
+        assertThat(ranges).hasSize(1);
+    }
+
+    @Test
+    void lowestFailingRangeIsRethrown() {
+        assertThatThrownBy(() -> parallelism.forEach(COUNT, COUNT, (from, to) -> {
+            throw new IllegalStateException("range " + from);
+        })).isInstanceOf(IllegalStateException.class).hasMessage("range 0");
+    }
+}
@@ -0,0 +1,158 @@
+package com.pension.engine.mutation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class ProjectionKernelTest {
+
+    /** The per-date loop project_future_benefits has always run; consumers compare its output exactly. */
+    private static double[] reference(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                      double[] accrualRates) {
+        int policyCount = empStartDays.length;
+        int dateCount = projectionDays.length;
+        double[] pensions = new double[policyCount * dateCount];
+        double[] years = new double[policyCount];
+        for (int d = 0; d < dateCount; d++) {
+            double totalYears = 0;
+            double weightedSum = 0;
+            for (int i = 0; i < policyCount; i++) {
+                long daysDiff = projectionDays[d] - empStartDays[i];
+                years[i] = daysDiff >= 0 ? daysDiff / 365.25 : 0;
+                totalYears += years[i];
+                weightedSum += effectiveSalaries[i] * years[i];
+            }
+            double weightedAvg = totalYears > 0 ? weightedSum / totalYears : 0;
+            for (int i = 0; i < policyCount; i++) {
+                pensions[i * dateCount + d] = totalYears > 0 ? weightedAvg * years[i] * accrualRates[i] : 0;
+            }
+        }
+        return pensions;
+    }
+
+    private record Grid(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                        double[] accrualRates) {
+
+        static Grid random(SplittableRandom random, int policyCount, int dateCount) {
+            long firstEmploymentDay = LocalDate.of(1985, 1, 1).toEpochDay();
+            long[] empStartDays = new long[policyCount];
+            double[] effectiveSalaries = new double[policyCount];
+            double[] accrualRates = new double[policyCount];
+            for (int i = 0; i < policyCount; i++) {
+                empStartDays[i] = firstEmploymentDay + random.nextInt(45 * 365);
+                effectiveSalaries[i] = (30000 + random.nextInt(60000)) * (random.nextBoolean() ? 1.0 : 0.8)
+                        + random.nextInt(100) / 100.0;
+                accrualRates[i] = random.nextBoolean() ? 0.02 : 0.0175;
+            }
+            LocalDate start = LocalDate.of(2000 + random.nextInt(30), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            int intervalMonths = 1 + random.nextInt(12);
+            long[] projectionDays = new long[dateCount];
+            for (int d = 0; d < dateCount; d++) {
+                projectionDays[d] = start.plusMonths((long) d * intervalMonths).toEpochDay();
+            }
+            return new Grid(projectionDays, empStartDays, effectiveSalaries, accrualRates);
+        }
+
+        double[] reference() {
+            return ProjectionKernelTest.reference(projectionDays, empStartDays, effectiveSalaries, accrualRates);
+        }
+
+        double[] compute(ProjectionKernel kernel) {
+            double[] pensions = new double[empStartDays.length * projectionDays.length];
+            kernel.compute(projectionDays, empStartDays, effectiveSalaries, accrualRates, pensions);
+            return pensions;
+        }
+    }
+
+    private static void assertBitIdentical(double[] actual, double[] expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int k = 0; k < expected.length; k++) {
+            if (Double.doubleToRawLongBits(actual[k]) != Double.doubleToRawLongBits(expected[k])) {
+                fail("cell %d is %s, expected %s", k, actual[k], expected[k]);
+            }
+        }
+    }
+
+    @Test
+    void vectorKernelIsAvailableToTheTests() {
+        assertThat(ProjectionKernel.vector()).isNotNull();
+        assertThat(ProjectionKernel.preferred()).isSameAs(ProjectionKernel.vector());
+    }
+
+    @Test
+    void bothKernelsMatchThePerDateLoopBitForBit() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] policyCounts = {1, 2, 3, 10, 100, 1000};
+        int[] dateCounts = {1, 2, 3, 7, 8, 9, 61, 121, 481};
+        for (int policyCount : policyCounts) {
+            for (int dateCount : dateCounts) {
+                Grid grid = Grid.random(random, policyCount, dateCount);
+                double[] expected = grid.reference();
+                assertBitIdentical(grid.compute(ProjectionKernel.scalar()), expected);
+                assertBitIdentical(grid.compute(ProjectionKernel.vector()), expected);
+            }
+        }
+    }
+
+    @Test
+    void datesBeforeEveryEmploymentProjectZero() {
+        long day = LocalDate.of(2020, 1, 1).toEpochDay();
+        Grid grid = new Grid(new long[]{day - 10, day, day + 1}, new long[]{day, day},
+                new double[]{50000, 40000}, new double[]{0.02, 0.02});
+        double[] expected = grid.reference();
+        assertThat(expected).containsOnly(0.0, expected[2]);
+        assertBitIdentical(grid.compute(ProjectionKernel.scalar()), expected);
+        assertBitIdentical(grid.compute(ProjectionKernel.vector()), expected);
+    }
+
+    @Test
+    void dateAndPolicyRangesComposeToTheWholeGrid() {
+        Grid grid = Grid.random(new SplittableRandom(11), 300, 245);
+        double[] expected = grid.reference();
+        for (ProjectionKernel kernel : new ProjectionKernel[]{ProjectionKernel.scalar(), ProjectionKernel.vector()}) {
+            int dateCount = grid.projectionDays.length;
+            int policyCount = grid.empStartDays.length;
+            double[] weightedAvg = new double[dateCount];
+            boolean[] hasService = new boolean[dateCount];
+            for (int from = 0; from < dateCount; from += 64) {
+                kernel.weightedAverages(grid.projectionDays, grid.empStartDays, grid.effectiveSalaries,
+                        weightedAvg, hasService, from, Math.min(dateCount, from + 64));
+            }
+            double[] pensions = new double[policyCount * dateCount];
+            for (int from = 0; from < policyCount; from += 64) {
+                kernel.pensions(grid.projectionDays, grid.empStartDays, grid.accrualRates, weightedAvg, hasService,
+                        pensions, from, Math.min(policyCount, from + 64));
+            }
+            assertBitIdentical(pensions, expected);
+        }
+    }
+
+    @Test
+    void sweepStaysWithinRoundingOfThePerPolicySum() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int policyCount : new int[]{1, 2, 10, 100, 1000}) {
+            for (int dateCount : new int[]{1, 2, 9, 121, 481}) {
+                Grid grid = Grid.random(random, policyCount, dateCount);
+                double[] expected = grid.reference();
+                double[] weightedAvg = new double[dateCount];
+                boolean[] hasService = new boolean[dateCount];
+                ProjectionKernel.sweepWeightedAverages(grid.projectionDays, grid.empStartDays,
+                        grid.effectiveSalaries, weightedAvg, hasService);
+                double[] pensions = new double[policyCount * dateCount];
+                ProjectionKernel.scalar().pensions(grid.projectionDays, grid.empStartDays, grid.accrualRates,
+                        weightedAvg, hasService, pensions, 0, policyCount);
+                for (int k = 0; k < expected.length; k++) {
+                    if (expected[k] == 0) {
+                        assertThat(pensions[k]).isZero();
+                    } else {
+                        assertThat(Math.abs(pensions[k] - expected[k]) / expected[k]).isLessThan(1e-12);
+                    }
+                }
+            }
+        }
+    }
+}
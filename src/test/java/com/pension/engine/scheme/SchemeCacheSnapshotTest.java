@@ -0,0 +1,139 @@
+package com.pension.engine.scheme;
+
+import com.pension.engine.model.IsoDate;
+import com.pension.engine.model.state.Dossier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemeCacheSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static final List<SchemeCacheSnapshot.Entry> ENTRIES = List.of(
+            new SchemeCacheSnapshot.Entry("SCHEME-A", 0.025, 1_700_000_000_000L),
+            new SchemeCacheSnapshot.Entry("", 0.0, 0L),
+            new SchemeCacheSnapshot.Entry("régime-é/ü", -1.5, Long.MAX_VALUE));
+
+    @Test
+    void writeThenReadRoundTrips() throws IOException {
+        Path file = dir.resolve("nested/schemes.snapshot");
+        SchemeCacheSnapshot.write(file, ENTRIES);
+
+        assertThat(SchemeCacheSnapshot.read(file)).containsExactlyElementsOf(ENTRIES);
+        try (var files = Files.list(file.getParent())) {
+            // The temporary file was moved into place
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void writeReplacesThePreviousSnapshot() throws IOException {
+        Path file = dir.resolve("schemes.snapshot");
+        SchemeCacheSnapshot.write(file, ENTRIES);
+        SchemeCacheSnapshot.write(file, ENTRIES.subList(0, 1));
+
+        assertThat(SchemeCacheSnapshot.read(file)).containsExactly(ENTRIES.get(0));
+    }
+
+    @Test
+    void idsTooLongForTheLengthPrefixAreLeftOut() throws IOException {
+        Path file = dir.resolve("schemes.snapshot");
+        SchemeCacheSnapshot.Entry tooLong = new SchemeCacheSnapshot.Entry("x".repeat(0x10000), 0.03, 1L);
+        SchemeCacheSnapshot.Entry longest = new SchemeCacheSnapshot.Entry("y".repeat(0xFFFF), 0.04, 2L);
+        SchemeCacheSnapshot.write(file, List.of(tooLong, longest, ENTRIES.get(0)));
+
+        assertThat(SchemeCacheSnapshot.read(file)).containsExactly(longest, ENTRIES.get(0));
+    }
+
+    @Test
+    void missingOrEmptyFileReadsAsNoEntries() throws IOException {
+        assertThat(SchemeCacheSnapshot.read(dir.resolve("missing"))).isEmpty();
+        assertThat(SchemeCacheSnapshot.read(dir)).isEmpty();
+        assertThat(SchemeCacheSnapshot.read(Files.createFile(dir.resolve("empty")))).isEmpty();
+    }
+
+    @Test
+    void everyTruncationReadsAsNoEntries() throws IOException {
+        Path file = dir.resolve("schemes.snapshot");
+        SchemeCacheSnapshot.write(file, ENTRIES);
+        byte[] full = Files.readAllBytes(file);
+
+        Path truncated = dir.resolve("truncated");
+        for (int length = 0; length < full.length; length++) {
+            Files.write(truncated, Arrays.copyOf(full, length));
+            assertThat(SchemeCacheSnapshot.read(truncated)).as("%d of %d bytes", length, full.length).isEmpty();
+        }
+    }
+
+    @Test
+    void corruptHeaderReadsAsNoEntries() throws IOException {
+        Path file = dir.resolve("schemes.snapshot");
+        SchemeCacheSnapshot.write(file, ENTRIES);
+        byte[] full = Files.readAllBytes(file);
+
+        byte[] badMagic = full.clone();
+        badMagic[0] ^= 1;
+        Files.write(file, badMagic);
+        assertThat(SchemeCacheSnapshot.read(file)).isEmpty();
+
+        for (int count : new int[]{ENTRIES.size() + 1, Integer.MAX_VALUE}) {
+            Files.write(file, withCount(full, count));
+            assertThat(SchemeCacheSnapshot.read(file)).as("count %d", count).isEmpty();
+        }
+
+        Files.write(file, withCount(full, -1));
+        assertThat(SchemeCacheSnapshot.read(file)).isEmpty();
+    }
+
+    @Test
+    void corruptIdLengthReadsAsNoEntries() throws IOException {
+        Path file = dir.resolve("schemes.snapshot");
+        SchemeCacheSnapshot.write(file, ENTRIES.subList(0, 1));
+        byte[] bytes = Files.readAllBytes(file);
+        // The first id's length prefix follows the 8-byte header
+        bytes[8] = (byte) 0xFF;
+        bytes[9] = (byte) 0xFF;
+        Files.write(file, bytes);
+
+        assertThat(SchemeCacheSnapshot.read(file)).isEmpty();
+    }
+
+    @Test
+    void corruptSnapshotStartsTheClientCold() throws Exception {
+        Path file = dir.resolve("schemes.snapshot");
+        Files.write(file, new byte[]{'S', 'C', 'H', '1', 5, 0, 0, 0, 3, 0, 'a'});
+
+        try (StubSchemeRegistry registry = StubSchemeRegistry.start().accrualRate(0.025)) {
+            SchemeRegistryClient client = new SchemeRegistryClient(registry.url(), 1024, 300, 60, 5, 2000, 1000, 5,
+                    10, file.toString(), 3600);
+            try {
+                Dossier dossier = new Dossier();
+                dossier.addPolicy("P1", "SCHEME-A", "2000-01-01", IsoDate.epochDay("2000-01-01"), 50_000, 1.0);
+                assertThat(client.getAccrualRates(dossier.getPolicies())).containsEntry("SCHEME-A", 0.025);
+                assertThat(registry.calls("SCHEME-A")).isEqualTo(1);
+            } finally {
+                client.shutdown();
+            }
+            // Shutdown wrote a valid snapshot over the corrupt one
+            assertThat(SchemeCacheSnapshot.read(file)).extracting(SchemeCacheSnapshot.Entry::schemeId)
+                    .containsExactly("SCHEME-A");
+        }
+    }
+
+    private static byte[] withCount(byte[] snapshot, int count) {
+        byte[] copy = snapshot.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(4, count);
+        return copy;
+    }
+}
@@ -0,0 +1,161 @@
+package com.pension.engine.scheme;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemeCacheTest {
+
+    private static final long TTL = 300;
+    private static final long REFRESH_AHEAD = 60;
+    private static final double FALLBACK = 0.02;
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    // Every load the cache started, per scheme, for the test to complete
+    private final Map<String, List<CompletableFuture<Double>>> loads = new HashMap<>();
+
+    private SchemeCache cache(int maxEntries, long negativeTtl) {
+        return new SchemeCache(maxEntries, TTL, REFRESH_AHEAD, negativeTtl, schemeId -> {
+            CompletableFuture<Double> load = new CompletableFuture<>();
+            loads.computeIfAbsent(schemeId, id -> new ArrayList<>()).add(load);
+            return load;
+        }, FALLBACK, clock::get);
+    }
+
+    private int loadCount(String schemeId) {
+        return loads.getOrDefault(schemeId, List.of()).size();
+    }
+
+    private CompletableFuture<Double> lastLoad(String schemeId) {
+        List<CompletableFuture<Double>> started = loads.get(schemeId);
+        return started.get(started.size() - 1);
+    }
+
+    @Test
+    void missLoadsOnceAndHitsAreServedFromTheCache() {
+        SchemeCache cache = cache(16, 0);
+
+        CompletableFuture<Double> first = cache.get("S1");
+        CompletableFuture<Double> second = cache.get("S1");
+        assertThat(first).isNotDone();
+        assertThat(second).isSameAs(first);
+
+        lastLoad("S1").complete(0.03);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+        assertThat(loadCount("S1")).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.coalesced()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsLoadedAgain() {
+        SchemeCache cache = cache(16, 0);
+        cache.get("S1");
+        lastLoad("S1").complete(0.03);
+
+        clock.addAndGet(TTL - REFRESH_AHEAD - 1);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+
+        clock.addAndGet(REFRESH_AHEAD + 1);
+        CompletableFuture<Double> reload = cache.get("S1");
+        assertThat(reload).isNotDone();
+        assertThat(loadCount("S1")).isEqualTo(2);
+
+        lastLoad("S1").complete(0.04);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.04);
+    }
+
+    @Test
+    void hitInsideRefreshAheadWindowServesCachedRateAndReloadsOnceInTheBackground() {
+        SchemeCache cache = cache(16, 0);
+        cache.get("S1");
+        lastLoad("S1").complete(0.03);
+
+        clock.addAndGet(TTL - REFRESH_AHEAD - 1);
+        cache.get("S1");
+        assertThat(loadCount("S1")).isEqualTo(1);
+
+        clock.addAndGet(1);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+        assertThat(loadCount("S1")).isEqualTo(2);
+        assertThat(cache.refreshes()).isEqualTo(1);
+
+        lastLoad("S1").complete(0.04);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.04);
+
+        // The reloaded entry has a full TTL from the refresh
+        clock.addAndGet(TTL - REFRESH_AHEAD - 1);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.04);
+        assertThat(loadCount("S1")).isEqualTo(2);
+    }
+
+    @Test
+    void failedRefreshKeepsServingTheCachedRate() {
+        SchemeCache cache = cache(16, 0);
+        cache.get("S1");
+        lastLoad("S1").complete(0.03);
+
+        clock.addAndGet(TTL - REFRESH_AHEAD);
+        cache.get("S1");
+        lastLoad("S1").completeExceptionally(new IllegalStateException("down"));
+
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+        assertThat(cache.failures()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheEntryLoadedLongestAgo() {
+        SchemeCache cache = cache(2, 0);
+        for (String schemeId : List.of("S1", "S2", "S3")) {
+            cache.get(schemeId);
+            lastLoad(schemeId).complete(0.03);
+            clock.incrementAndGet();
+        }
+        cache.get("S4");
+
+        // S4 is still loading, so only completed entries were candidates
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(2);
+        assertThat(cache.get("S3")).isCompletedWithValue(0.03);
+        assertThat(loadCount("S3")).isEqualTo(1);
+
+        cache.get("S1");
+        assertThat(loadCount("S1")).isEqualTo(2);
+    }
+
+    @Test
+    void failedLoadHandsOutTheFallbackAndIsNotCached() {
+        SchemeCache cache = cache(16, 0);
+
+        CompletableFuture<Double> rate = cache.get("S1");
+        lastLoad("S1").completeExceptionally(new IllegalStateException("down"));
+        assertThat(rate).isCompletedWithValue(FALLBACK);
+        assertThat(cache.size()).isZero();
+
+        cache.get("S1");
+        assertThat(loadCount("S1")).isEqualTo(2);
+        lastLoad("S1").complete(0.03);
+        assertThat(cache.get("S1")).isCompletedWithValue(0.03);
+        assertThat(cache.failures()).isEqualTo(1);
+    }
+
+    @Test
+    void loaderThatThrowsCountsAsAFailedLoad() {
+        SchemeCache cache = new SchemeCache(16, TTL, REFRESH_AHEAD, 0, schemeId -> {
+            throw new IllegalArgumentException("bad id");
+        }, FALLBACK, clock::get);
+
+        assertThat(cache.get("S1")).isCompletedWithValue(FALLBACK);
+        assertThat(cache.failures()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+}
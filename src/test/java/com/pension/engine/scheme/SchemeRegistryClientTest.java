@@ -0,0 +1,109 @@
+package com.pension.engine.scheme;
+
+import com.pension.engine.model.IsoDate;
+import com.pension.engine.model.state.Dossier;
+import com.pension.engine.model.state.Policy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemeRegistryClientTest {
+
+    private StubSchemeRegistry registry;
+    private SchemeRegistryClient client;
+
+    @BeforeEach
+    void startRegistry() throws Exception {
+        registry = StubSchemeRegistry.start().accrualRate(0.025);
+    }
+
+    @AfterEach
+    void stopRegistry() {
+        if (client != null) {
+            client.shutdown();
+        }
+        registry.close();
+    }
+
+    private static List<Policy> policies(String... schemeIds) {
+        Dossier dossier = new Dossier();
+        for (int i = 0; i < schemeIds.length; i++) {
+            String start = "2000-01-0" + (i + 1);
+            dossier.addPolicy("P" + i, schemeIds[i], start, IsoDate.epochDay(start), 50_000, 1.0);
+        }
+        return dossier.getPolicies();
+    }
+
+    @Test
+    void concurrentMissesForOneSchemeMakeOneRegistryCall() throws Exception {
+        registry.latencyMillis(200);
+        client = new SchemeRegistryClient(registry.url());
+        List<Policy> policies = policies("S1");
+
+        int callers = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Map<String, Double>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return client.getAccrualRates(policies);
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, Double>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).containsExactlyEntriesOf(Map.of("S1", 0.025));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(registry.calls("S1")).isEqualTo(1);
+    }
+
+    @Test
+    void schemesSharedByPoliciesAreFetchedOnceEach() {
+        client = new SchemeRegistryClient(registry.url());
+        registry.accrualRate("S2", 0.03);
+
+        Map<String, Double> rates = client.getAccrualRates(policies("S1", "S2", "S1", "S2"));
+        assertThat(rates).containsExactlyInAnyOrderEntriesOf(Map.of("S1", 0.025, "S2", 0.03));
+        client.getAccrualRates(policies("S2", "S1"));
+
+        assertThat(registry.calls()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCallFallsBackToTheDefaultRate() {
+        registry.errorRate("S1", 1.0);
+        client = new SchemeRegistryClient(registry.url());
+
+        assertThat(client.getAccrualRates(policies("S1"))).containsExactlyEntriesOf(Map.of("S1", 0.02));
+        assertThat(registry.errors()).isEqualTo(1);
+    }
+
+    @Test
+    void schemeIdThatIsNotAValidPathDoesNotLeakTheHalfOpenProbe() {
+        registry.errorRate("DOWN", 1.0);
+        // Threshold 1 and no open period: one failure opens the breaker and the next call is the half-open probe
+        client = new SchemeRegistryClient(registry.url(), 1024, 300, 60, 0, 2000, 1000, 1, 0, "", 30);
+
+        assertThat(client.getAccrualRates(policies("DOWN"))).containsExactlyEntriesOf(Map.of("DOWN", 0.02));
+        assertThat(client.getAccrualRates(policies("a b|{c}"))).containsExactlyEntriesOf(Map.of("a b|{c}", 0.025));
+        assertThat(client.getAccrualRates(policies("S1"))).containsExactlyEntriesOf(Map.of("S1", 0.025));
+
+        assertThat(registry.calls("a b|{c}")).isEqualTo(1);
+        assertThat(registry.calls("S1")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,173 @@
+package com.pension.engine.scheme;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process scheme registry on the JDK HTTP server, for testing and benchmarking {@link SchemeRegistryClient}
+ * without the real service. Serves {@code GET /schemes/{id}} as {@code {"scheme_id": ..., "accrual_rate": ...}} on a
+ * loopback port.
+ *
+ * <p>Latency, accrual rate and error rate can be set per scheme, with defaults for the rest. Errors answer 500 and
+ * are drawn from a seeded generator, so a run fails the same calls every time. Every call is counted, in total and
+ * per scheme. Each call is handled on its own thread, so latencies overlap like a real service's.
+ *
+ * <p>The JDK server writes headers and body separately, so without {@code TCP_NODELAY} every answer waits out the
+ * client's delayed ACK (about 40 ms). {@link #start} turns it on unless {@code sun.net.httpserver.nodelay} is set;
+ * like the server's other settings it is read once, when the first server in the JVM is created.
+ */
+public final class StubSchemeRegistry implements AutoCloseable {
+
+    private static final String PREFIX = "/schemes/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<String, Long> latencyMillis = new ConcurrentHashMap<>();
+    private final Map<String, Double> errorRates = new ConcurrentHashMap<>();
+    private final Map<String, Double> rates = new ConcurrentHashMap<>();
+    private volatile long defaultLatencyMillis;
+    private volatile double defaultErrorRate;
+    private volatile double defaultRate = 0.02;
+    private final SplittableRandom random = new SplittableRandom(17L);
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> callsByScheme = new ConcurrentHashMap<>();
+
+    private StubSchemeRegistry(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /** Starts a registry on a free loopback port. */
+    public static StubSchemeRegistry start() throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "stub-registry-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        StubSchemeRegistry registry = new StubSchemeRegistry(server, executor);
+        server.createContext(PREFIX, registry::handle);
+        server.setExecutor(executor);
+        server.start();
+        return registry;
+    }
+
+    /** Base URL to use as {@code SCHEME_REGISTRY_URL}. */
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public StubSchemeRegistry latencyMillis(long millis) {
+        defaultLatencyMillis = millis;
+        return this;
+    }
+
+    public StubSchemeRegistry latencyMillis(String schemeId, long millis) {
+        latencyMillis.put(schemeId, millis);
+        return this;
+    }
+
+    /** Fraction of calls, from 0 to 1, answered with a 500. */
+    public StubSchemeRegistry errorRate(double errorRate) {
+        defaultErrorRate = errorRate;
+        return this;
+    }
+
+    public StubSchemeRegistry errorRate(String schemeId, double errorRate) {
+        errorRates.put(schemeId, errorRate);
+        return this;
+    }
+
+    public StubSchemeRegistry accrualRate(double rate) {
+        defaultRate = rate;
+        return this;
+    }
+
+    public StubSchemeRegistry accrualRate(String schemeId, double rate) {
+        rates.put(schemeId, rate);
+        return this;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long calls(String schemeId) {
+        LongAdder count = callsByScheme.get(schemeId);
+        return count == null ? 0 : count.sum();
+    }
+
+    /** Calls answered with a 500. */
+    public long errors() {
+        return errors.sum();
+    }
+
+    public void resetCounts() {
+        calls.reset();
+        errors.reset();
+        callsByScheme.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String schemeId = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            calls.increment();
+            callsByScheme.computeIfAbsent(schemeId, id -> new LongAdder()).increment();
+
+            long latency = latencyMillis.getOrDefault(schemeId, defaultLatencyMillis);
+            if (latency > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            double errorRate = errorRates.getOrDefault(schemeId, defaultErrorRate);
+            boolean fail;
+            synchronized (random) {
+                fail = errorRate > 0 && random.nextDouble() < errorRate;
+            }
+            if (fail) {
+                errors.increment();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            byte[] body = ("{\"scheme_id\":\"" + schemeId + "\",\"accrual_rate\":"
+                    + rates.getOrDefault(schemeId, defaultRate) + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.pension.engine.mutation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorizes across projection dates rather than policies. For the averages each lane is one date, and the loop
+ * over policies accumulates every lane in policy order, so the per-date sums see exactly the additions of the
+ * scalar loop without a reordered horizontal reduction. For the pensions each lane is one date of one policy's
+ * row, so rows are written contiguously.
+ *
+ * <p>Day differences are taken in double; epoch days are far below 2^53, so they are exact.
+ */
+final class VectorProjectionKernel extends ProjectionKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void weightedAverages(long[] projectionDays, long[] empStartDays, double[] effectiveSalaries,
+                                 double[] weightedAvg, boolean[] hasService, int fromDate, int toDate) {
+        int policyCount = empStartDays.length;
+        int upper = fromDate + SPECIES.loopBound(toDate - fromDate);
+
+        if (upper > fromDate) {
+            double[] projDays = toDoubles(projectionDays, fromDate, upper);
+            double[] startDays = toDoubles(empStartDays, 0, policyCount);
+            for (int d = 0; d < projDays.length; d += SPECIES.length()) {
+                DoubleVector proj = DoubleVector.fromArray(SPECIES, projDays, d);
+                DoubleVector total = DoubleVector.zero(SPECIES);
+                DoubleVector weighted = DoubleVector.zero(SPECIES);
+                for (int i = 0; i < policyCount; i++) {
+                    DoubleVector years = years(proj, startDays[i]);
+                    total = total.add(years);
+                    weighted = weighted.add(years.mul(effectiveSalaries[i]));
+                }
+                VectorMask<Double> service = total.compare(VectorOperators.GT, 0.0);
+                service.intoArray(hasService, fromDate + d);
+                weighted.div(total).blend(0.0, service.not()).intoArray(weightedAvg, fromDate + d);
+            }
+        }
+
+        scalarWeightedAverages(projectionDays, empStartDays, effectiveSalaries, weightedAvg, hasService,
+                upper, toDate);
+    }
+
+    @Override
+    public void pensions(long[] projectionDays, long[] empStartDays, double[] accrualRates,
+                         double[] weightedAvg, boolean[] hasService, double[] pensions,
+                         int fromPolicy, int toPolicy) {
+        int dateCount = projectionDays.length;
+        int upper = SPECIES.loopBound(dateCount);
+
+        if (upper > 0) {
+            double[] projDays = toDoubles(projectionDays, 0, upper);
+            for (int i = fromPolicy; i < toPolicy; i++) {
+                double startDay = empStartDays[i];
+                double rate = accrualRates[i];
+                int offset = i * dateCount;
+                for (int d = 0; d < upper; d += SPECIES.length()) {
+                    DoubleVector years = years(DoubleVector.fromArray(SPECIES, projDays, d), startDay);
+                    VectorMask<Double> noService = VectorMask.fromArray(SPECIES, hasService, d).not();
+                    DoubleVector.fromArray(SPECIES, weightedAvg, d)
+                            .mul(years)
+                            .mul(rate)
+                            .blend(0.0, noService)
+                            .intoArray(pensions, offset + d);
+                }
+            }
+        }
+
+        scalarPensions(projectionDays, empStartDays, accrualRates, weightedAvg, hasService, pensions,
+                fromPolicy, toPolicy, upper, dateCount);
+    }
+
+    private static DoubleVector years(DoubleVector projDays, double startDay) {
+        DoubleVector diff = projDays.sub(startDay);
+        return diff.div(DAYS_PER_YEAR).blend(0.0, diff.compare(VectorOperators.LT, 0.0));
+    }
+
+    private static double[] toDoubles(long[] days, int from, int to) {
+        double[] result = new double[to - from];
+        for (int k = from; k < to; k++) {
+            result[k - from] = days[k];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() { return "vector"; }
+}